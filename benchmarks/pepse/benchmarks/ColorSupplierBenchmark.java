@@ -0,0 +1,42 @@
+package pepse.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pepse.util.ColorSupplier;
+import pepse.util.HashRandom;
+
+import java.awt.*;
+
+/**
+ * Measures picking the color of a cell of the world, with and without the shared color palettes.
+ * @author: Batia
+ */
+@State(Scope.Thread)
+public class ColorSupplierBenchmark {
+    private static final Color BASE_COLOR = new Color(212, 123, 74);
+    /** Whether colors are picked from a palette. */
+    @Param({"true", "false"})
+    public boolean paletteMode;
+    private long coordinate;
+
+    /**
+     * Sets the palette mode.
+     */
+    @Setup
+    public void setUp() {
+        ColorSupplier.setPaletteMode(paletteMode);
+    }
+
+    /**
+     * The color of a single cell, moving to the next cell every call.
+     * @return The color.
+     */
+    @Benchmark
+    public Color approximateColor() {
+        return ColorSupplier.approximateColor(BASE_COLOR, WorldFixtures.SEED, coordinate++,
+                HashRandom.GROUND_COLOR);
+    }
+}
@@ -0,0 +1,90 @@
+package pepse.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pepse.util.TimingWheel;
+import pepse.world.Block;
+import pepse.world.ChunkRecycler;
+import pepse.world.Constants;
+import pepse.world.Terrain;
+import pepse.world.chunks.Chunk;
+import pepse.world.chunks.ChunkCache;
+import pepse.world.chunks.ChunkData;
+import pepse.world.trees.Flora;
+import pepse.world.trees.Fruit;
+import pepse.world.trees.Leaf;
+import pepse.world.trees.Tree;
+
+/**
+ * Measures the discard of a chunk, as when the game pushes it out of the chunk cache: the cache drops it
+ * and the game's ChunkRecycler gives its objects back to the terrain and flora pools and forgets its
+ * heights and trees. A new chunk is built before every call, with a block per ground cell and detailed
+ * trees, the largest a chunk gets, cycling over a few chunks whose data is generated once.
+ * @author: Batia
+ */
+@State(Scope.Thread)
+public class EvictionBenchmark {
+    private static final int CHUNKS = 8;
+    private Terrain terrain;
+    private Flora flora;
+    private ChunkCache cache;
+    private ChunkData[] chunkData;
+    private int next;
+    private Chunk chunk;
+
+    /**
+     * Creates the terrain, the flora, a cache that keeps no chunk, and the data of the chunks.
+     */
+    @Setup
+    public void setUp() {
+        terrain = new Terrain(WorldFixtures.WINDOW_DIMENSIONS, WorldFixtures.SEED);
+        flora = new Flora(terrain::groundHeightAt, WorldFixtures.SEED, new TimingWheel());
+        ChunkRecycler recycler = new ChunkRecycler(terrain, flora);
+        cache = new ChunkCache(0, recycler::recycle);
+        chunkData = new ChunkData[CHUNKS];
+        for (int i = 0; i < CHUNKS; i++) {
+            chunkData[i] = terrain.generateChunk(i);
+            chunkData[i].setTreeColumns(flora.treeColumnsInChunk(i));
+        }
+    }
+
+    /**
+     * Builds the next chunk with its terrain blocks and trees, as the game does when the chunk is attached.
+     */
+    @Setup(Level.Invocation)
+    public void buildChunk() {
+        ChunkData data = chunkData[next];
+        next = (next + 1) % CHUNKS;
+        terrain.commitHeights(data);
+        chunk = new Chunk(data.getIndex(), data);
+        int chunkX = data.getIndex() * Constants.CHUNK_WIDTH;
+        for (int column = 0; column < chunk.columnCount(); column++) {
+            for (Block block : terrain.createBlocks(data, column)) {
+                chunk.add(column, block, 0);
+            }
+            if (data.hasTree(column)) {
+                Tree tree = flora.plantTree(chunkX + column * Constants.BLOCK_SIZE);
+                chunk.add(column, tree.getTrunk(), 0);
+                for (Leaf leaf : tree.getLeaves()) {
+                    chunk.add(column, leaf, 0);
+                }
+                for (Fruit fruit : tree.getFruits()) {
+                    chunk.add(column, fruit, 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Puts the chunk into the cache, which discards it at once, recycling every object of the chunk.
+     * @return The number of chunks left in the cache.
+     */
+    @Benchmark
+    public int discard() {
+        cache.put(chunk);
+        return cache.size();
+    }
+}
@@ -0,0 +1,123 @@
+package pepse.benchmarks;
+
+import danogl.util.Vector2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pepse.util.TimingWheel;
+import pepse.world.Constants;
+import pepse.world.Terrain;
+import pepse.world.trees.Flora;
+import pepse.world.trees.Tree;
+import pepse.world.trees.TreePools;
+
+import java.util.HashSet;
+
+/**
+ * Measures the flora: planting the trees of a range, and building single trees in full detail and as a
+ * distant canopy. Every benchmark cycles over the same few chunks, whose ground heights are committed as
+ * if they were resident, so the coordinates stay small; the single trees are built at positions computed
+ * once. Every created tree is recycled within the measured call, as the game does when its chunk is
+ * discarded, so the pools reach a steady state.
+ * @author: Batia
+ */
+@State(Scope.Thread)
+public class FloraBenchmark {
+    private static final int CHUNKS = 16;
+    private static final int WIDTH = CHUNKS * Constants.CHUNK_WIDTH;
+    private Terrain terrain;
+    private Flora flora;
+    private TreePools pools;
+    private Vector2[] treePositions;
+    private int x;
+    private int nextTree;
+
+    /**
+     * The width of a range, in pixels: a chunk, the window, and a window on each side.
+     */
+    @State(Scope.Thread)
+    public static class Range {
+        /** The width of the range. */
+        @Param({"480", "1200", "3600"})
+        public int width;
+    }
+
+    /**
+     * Creates the terrain the trees stand on, commits the heights of its chunks, creates the flora and
+     * computes a tree position on the ground of every column.
+     */
+    @Setup
+    public void setUp() {
+        terrain = new Terrain(WorldFixtures.WINDOW_DIMENSIONS, WorldFixtures.SEED);
+        for (int i = 0; i < CHUNKS; i++) {
+            terrain.commitHeights(terrain.generateChunk(i));
+        }
+        TimingWheel timers = new TimingWheel();
+        flora = new Flora(terrain::groundHeightAt, WorldFixtures.SEED, timers);
+        pools = flora.getPools();
+        treePositions = new Vector2[WIDTH / Constants.BLOCK_SIZE];
+        for (int i = 0; i < treePositions.length; i++) {
+            int treeX = i * Constants.BLOCK_SIZE;
+            treePositions[i] = Vector2.of(treeX, terrain.groundHeightAt(treeX));
+        }
+    }
+
+    /**
+     * The trees of a range, moving one range to the right every call and back to the first chunk when the
+     * range would pass the last, then released and recycled.
+     * @param range The width of the range.
+     * @return The number of trees created.
+     */
+    @Benchmark
+    public int createInRange(Range range) {
+        int width = range.width;
+        x += width;
+        if (x + width > WIDTH) {
+            x = 0;
+        }
+        HashSet<Tree> trees = flora.createInRange(x, x + width);
+        for (int chunk = Math.floorDiv(x, Constants.CHUNK_WIDTH);
+             chunk <= Math.floorDiv(x + width, Constants.CHUNK_WIDTH); chunk++) {
+            flora.releaseChunk(chunk);
+        }
+        for (Tree tree : trees) {
+            WorldFixtures.recycleTree(flora, tree);
+        }
+        return trees.size();
+    }
+
+    /**
+     * A single tree with its leaves and fruits, then recycled.
+     * @return The tree.
+     */
+    @Benchmark
+    public Tree detailedTree() {
+        Tree tree = new Tree(nextTreePosition(), WorldFixtures.SEED, pools, true);
+        WorldFixtures.recycleTree(flora, tree);
+        return tree;
+    }
+
+    /**
+     * A single tree with a baked canopy in place of its leaves and fruits, then recycled.
+     * @return The tree.
+     */
+    @Benchmark
+    public Tree canopyTree() {
+        Tree tree = new Tree(nextTreePosition(), WorldFixtures.SEED, pools, false);
+        WorldFixtures.recycleTree(flora, tree);
+        return tree;
+    }
+
+    /**
+     * Returns the next precomputed tree position, one block to the right of the last and back to the
+     * first after the last column.
+     * @return The position of the tree's base.
+     */
+    private Vector2 nextTreePosition() {
+        Vector2 position = treePositions[nextTree];
+        nextTree = (nextTree + 1) % treePositions.length;
+        return position;
+    }
+}
@@ -0,0 +1,51 @@
+package pepse.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pepse.util.NoiseGenerator;
+import pepse.world.Constants;
+
+/**
+ * Measures the noise the terrain's height is made of, one point at a time and a chunk of columns at once.
+ * @author: Batia
+ */
+@State(Scope.Thread)
+public class NoiseBenchmark {
+    private static final double FACTOR = Constants.BLOCK_SIZE * 7;
+    private static final int COLUMNS = Constants.CHUNK_WIDTH / Constants.BLOCK_SIZE;
+    private NoiseGenerator noiseGenerator;
+    private double[] heights;
+    private double x;
+
+    /**
+     * Creates the noise generator.
+     */
+    @Setup
+    public void setUp() {
+        noiseGenerator = new NoiseGenerator(WorldFixtures.SEED, WorldFixtures.GROUND_HEIGHT_AT_X0);
+        heights = new double[COLUMNS];
+    }
+
+    /**
+     * The noise at a single point, moving one block to the right every call.
+     * @return The noise.
+     */
+    @Benchmark
+    public double noise() {
+        x += Constants.BLOCK_SIZE;
+        return noiseGenerator.noise(x, FACTOR);
+    }
+
+    /**
+     * The noise of every block column of a chunk, written into an array.
+     * @return The array of noise values.
+     */
+    @Benchmark
+    public double[] noiseChunk() {
+        x += Constants.CHUNK_WIDTH;
+        noiseGenerator.noise(x, Constants.BLOCK_SIZE, FACTOR, heights, 0, COLUMNS);
+        return heights;
+    }
+}
@@ -0,0 +1,158 @@
+package pepse.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pepse.world.Block;
+import pepse.world.Constants;
+import pepse.world.GroundColumn;
+import pepse.world.Terrain;
+import pepse.world.chunks.ChunkData;
+
+import java.util.List;
+
+/**
+ * Measures the terrain: the height of a single point, the blocks and merged columns of a range as wide as
+ * a chunk, the window or wider, built directly or from the data of its chunks, and the data of a whole
+ * chunk as the chunk generator computes it. Every benchmark
+ * cycles over the same few chunks, whose heights are committed as if they were resident, so the
+ * coordinates stay small and the terrain holds the same heights throughout the run. Created blocks are
+ * recycled within the measured call, as the game does when they leave it, so the pools reach a steady
+ * state.
+ * @author: Batia
+ */
+@State(Scope.Thread)
+public class TerrainBenchmark {
+    private static final int CHUNKS = 16;
+    private static final int WIDTH = CHUNKS * Constants.CHUNK_WIDTH;
+    private Terrain terrain;
+    private int x;
+    private int rangeX;
+    private int chunkIndex;
+
+    /**
+     * The number of chunks in a range: a chunk, about the window, and about a window on each side.
+     */
+    @State(Scope.Thread)
+    public static class Range {
+        /** The number of chunks. */
+        @Param({"1", "3", "8"})
+        public int chunks;
+    }
+
+    /**
+     * Creates the terrain and commits the heights of the chunks the benchmarks cycle over.
+     */
+    @Setup
+    public void setUp() {
+        terrain = new Terrain(WorldFixtures.WINDOW_DIMENSIONS, WorldFixtures.SEED);
+        for (int i = 0; i < CHUNKS; i++) {
+            terrain.commitHeights(terrain.generateChunk(i));
+        }
+    }
+
+    /**
+     * The ground height at a single point of a resident chunk, moving one block to the right every call
+     * and back to the first chunk after the last.
+     * @return The height.
+     */
+    @Benchmark
+    public float groundHeightAt() {
+        x = (x + Constants.BLOCK_SIZE) % WIDTH;
+        return terrain.groundHeightAt(x);
+    }
+
+    /**
+     * The blocks of a range, one per ground cell, built from the ground heights as the world did before
+     * it was streamed in chunks, then recycled. The range moves one range to the right every call and
+     * back to the first chunk when it would pass the last.
+     * @param range The number of chunks in the range.
+     * @return The number of blocks created.
+     */
+    @Benchmark
+    public int createInRange(Range range) {
+        int minX = nextRangeX(range);
+        List<Block> blocks = terrain.createInRange(minX, minX + range.chunks * Constants.CHUNK_WIDTH);
+        for (Block block : blocks) {
+            terrain.recycle(block);
+        }
+        return blocks.size();
+    }
+
+    /**
+     * The merged columns of a range, a surface block and a fill each, then recycled. The range moves as
+     * in createInRange.
+     * @param range The number of chunks in the range.
+     * @return The number of columns created.
+     */
+    @Benchmark
+    public int createColumnsInRange(Range range) {
+        int minX = nextRangeX(range);
+        List<GroundColumn> columns = terrain.createColumnsInRange(minX,
+                minX + range.chunks * Constants.CHUNK_WIDTH);
+        for (GroundColumn column : columns) {
+            terrain.recycle(column.getSurface());
+            terrain.recycle(column.getFill());
+        }
+        return columns.size();
+    }
+
+    /**
+     * The data and the blocks of every column of a range of chunks, moving one range to the right every
+     * call and back to the first chunk after the last, then recycled.
+     * @param range The number of chunks in the range.
+     * @return The number of blocks created.
+     */
+    @Benchmark
+    public int createBlocks(Range range) {
+        int count = 0;
+        for (int i = 0; i < range.chunks; i++) {
+            ChunkData data = terrain.generateChunk(nextChunk());
+            for (int column = 0; column < data.columnCount(); column++) {
+                List<Block> blocks = terrain.createBlocks(data, column);
+                for (Block block : blocks) {
+                    terrain.recycle(block);
+                }
+                count += blocks.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * The heights, colors and baked image of a chunk, moving one chunk to the right every call and back
+     * to the first chunk after the last.
+     * @return The chunk data.
+     */
+    @Benchmark
+    public ChunkData generateChunk() {
+        return terrain.generateChunk(nextChunk());
+    }
+
+    /**
+     * Returns the start of the next range, one range to the right of the last, or the first chunk if the
+     * range would pass the last committed chunk.
+     * @param range The number of chunks in the range.
+     * @return The x-coordinate of the range's start.
+     */
+    private int nextRangeX(Range range) {
+        int width = range.chunks * Constants.CHUNK_WIDTH;
+        rangeX += width;
+        if (rangeX + width > WIDTH) {
+            rangeX = 0;
+        }
+        return rangeX;
+    }
+
+    /**
+     * Returns the index of the next chunk to generate, cycling over the committed chunks.
+     * @return The chunk index.
+     */
+    private int nextChunk() {
+        int index = chunkIndex;
+        chunkIndex = (chunkIndex + 1) % CHUNKS;
+        return index;
+    }
+}
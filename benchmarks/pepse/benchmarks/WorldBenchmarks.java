@@ -0,0 +1,53 @@
+package pepse.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs every benchmark of the world generation pipeline with the GC profiler, so each result has an
+ * allocation rate next to its throughput, and writes the results as JSON to compare across changes.
+ * Usage: WorldBenchmarks [results file] [benchmark name pattern]
+ * @author: Batia
+ */
+public class WorldBenchmarks {
+    private static final String DEFAULT_RESULTS = "benchmarks/results.json";
+    private static final String ALL_BENCHMARKS = "pepse\\.benchmarks\\..*";
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASUREMENT_ITERATIONS = 5;
+    private static final int ITERATION_SECONDS = 2;
+
+    /**
+     * Not meant to be instantiated.
+     */
+    private WorldBenchmarks() {
+    }
+
+    /**
+     * Runs the benchmarks.
+     * @param args The results file and a pattern of the benchmarks to run, both optional.
+     * @throws RunnerException If JMH fails to run the benchmarks.
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(args.length > 1 ? args[1] : ALL_BENCHMARKS)
+                .addProfiler(GCProfiler.class)
+                .warmupIterations(WARMUP_ITERATIONS)
+                .measurementIterations(MEASUREMENT_ITERATIONS)
+                .warmupTime(TimeValue.seconds(ITERATION_SECONDS))
+                .measurementTime(TimeValue.seconds(ITERATION_SECONDS))
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .forks(1)
+                .jvmArgsAppend("-Djava.awt.headless=true")
+                .resultFormat(ResultFormatType.JSON)
+                .result(args.length > 0 ? args[0] : DEFAULT_RESULTS)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,46 @@
+package pepse.benchmarks;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import pepse.world.trees.Flora;
+import pepse.world.trees.Fruit;
+import pepse.world.trees.Leaf;
+import pepse.world.trees.Tree;
+
+/**
+ * Shared settings of the benchmarks, matching the game's defaults.
+ * @author: Batia
+ */
+final class WorldFixtures {
+    /** The world seed every benchmark uses, so runs are comparable. */
+    static final int SEED = 1234;
+    /** The dimensions of the game window. */
+    static final Vector2 WINDOW_DIMENSIONS = Vector2.of(1200, 800);
+    /** The ground height at x = 0 the game's noise is relative to. */
+    static final int GROUND_HEIGHT_AT_X0 = 533;
+
+    /**
+     * Not meant to be instantiated.
+     */
+    private WorldFixtures() {
+    }
+
+    /**
+     * Gives every part of a tree back to the flora's pools, as when its chunk is discarded.
+     * @param flora The flora that created the tree.
+     * @param tree The tree.
+     */
+    static void recycleTree(Flora flora, Tree tree) {
+        flora.recycle(tree.getTrunk());
+        GameObject canopy = tree.getCanopy();
+        if (canopy != null) {
+            flora.recycle(canopy);
+        }
+        for (Leaf leaf : tree.getLeaves()) {
+            flora.recycle(leaf);
+        }
+        for (Fruit fruit : tree.getFruits()) {
+            flora.recycle(fruit);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package pepse;
+
+/**
+ * The ways the world can be built and drawn, chosen on the command line. Each flag switches one part of
+ * the world to another form, to compare them or to debug the world:
+ * --merged-terrain: ground columns made of a surface block and a single fill, instead of one baked sprite
+ * per chunk.
+ * --block-terrain: ground made of one block per cell, as before columns were merged.
+ * --analytic-ground: the avatar stands on the terrain's height instead of colliding with the ground, and
+ * the ground is only drawn. Off by default, so the avatar collides with the ground as it always did.
+ * --no-palettes: every cell gets its own color instead of one from a shared palette.
+ * --detailed-trees: every tree always has its separate leaves and fruits, instead of a canopy when far.
+ * Arguments that are not flags are ignored.
+ * @author: Batia
+ */
+public class GameOptions {
+    /** How the ground of a chunk is made of game objects. */
+    public enum TerrainMode {
+        /** One sprite per chunk, with invisible surface colliders only if the avatar collides. */
+        BAKED,
+        /** A surface block and a single fill per column. */
+        MERGED,
+        /** One block per ground cell. */
+        BLOCKS
+    }
+
+    private static final String MERGED_TERRAIN = "--merged-terrain";
+    private static final String BLOCK_TERRAIN = "--block-terrain";
+    private static final String ANALYTIC_GROUND = "--analytic-ground";
+    private static final String NO_PALETTES = "--no-palettes";
+    private static final String DETAILED_TREES = "--detailed-trees";
+    private TerrainMode terrainMode = TerrainMode.BAKED;
+    private boolean analyticGround = false;
+    private boolean colorPalettes = true;
+    private boolean canopyLod = true;
+
+    /**
+     * Constructs the default options.
+     */
+    public GameOptions() {
+    }
+
+    /**
+     * Reads options from command-line arguments.
+     * @param args The arguments.
+     * @return The options, the defaults for every flag that is not given.
+     * @throws IllegalArgumentException If an argument starts with -- but is not a known flag.
+     */
+    public static GameOptions parse(String[] args) {
+        GameOptions options = new GameOptions();
+        for (String arg : args) {
+            switch (arg) {
+                case MERGED_TERRAIN:
+                    options.terrainMode = TerrainMode.MERGED;
+                    break;
+                case BLOCK_TERRAIN:
+                    options.terrainMode = TerrainMode.BLOCKS;
+                    break;
+                case ANALYTIC_GROUND:
+                    options.analyticGround = true;
+                    break;
+                case NO_PALETTES:
+                    options.colorPalettes = false;
+                    break;
+                case DETAILED_TREES:
+                    options.canopyLod = false;
+                    break;
+                default:
+                    if (arg.startsWith("--")) {
+                        throw new IllegalArgumentException("Unknown option: " + arg);
+                    }
+                    break;
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Returns how the ground of a chunk is made of game objects.
+     * @return The terrain mode.
+     */
+    public TerrainMode getTerrainMode() {
+        return terrainMode;
+    }
+
+    /**
+     * Returns whether the avatar stands on the terrain's height instead of colliding with ground blocks.
+     * @return True if the ground is analytic.
+     */
+    public boolean isAnalyticGround() {
+        return analyticGround;
+    }
+
+    /**
+     * Returns whether cell colors are picked from shared palettes.
+     * @return True if palettes are used.
+     */
+    public boolean useColorPalettes() {
+        return colorPalettes;
+    }
+
+    /**
+     * Returns whether distant trees are drawn as a single canopy.
+     * @return True if trees switch between a canopy and their details.
+     */
+    public boolean useCanopyLod() {
+        return canopyLod;
+    }
+}
@@ -0,0 +1,176 @@
+package pepse;
+
+import danogl.gui.ImageReader;
+import danogl.gui.UserInputListener;
+import danogl.gui.WindowController;
+import danogl.gui.rendering.ImageRenderable;
+import danogl.util.Vector2;
+import pepse.util.FrameProfiler;
+
+import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
+import java.lang.reflect.Proxy;
+
+/**
+ * Runs the Pepse world without a window, for benchmarking and soak tests on machines with no display.
+ * The game is initialized with stand-ins for the window, the image reader and the keyboard, then its
+ * update loop is stepped at a fixed time step as fast as possible. Nothing is drawn. The stand-in
+ * keyboard walks the avatar to the right in bursts, resting to regain energy and jumping now and then,
+ * so terrain, flora and rain keep streaming.
+ * Usage: HeadlessRunner [frames] [deltaTime] [options], with the options of GameOptions.
+ * @author: Batia
+ */
+public class HeadlessRunner {
+    private static final int DEFAULT_FRAMES = 20_000;
+    private static final float DEFAULT_DELTA_TIME = 1 / 60f;
+    private static final Vector2 WINDOW_DIMENSIONS = Vector2.of(1200, 800);
+    private static final int WALK_FRAMES = 180;
+    private static final int REST_FRAMES = 120;
+    private static final int JUMP_PERIOD = 90;
+    private static final int REPORT_PERIOD = 5_000;
+    private static final int PLACEHOLDER_SIZE = 1;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static int frame;
+
+    /**
+     * Not meant to be instantiated.
+     */
+    private HeadlessRunner() {
+    }
+
+    /**
+     * Runs the world headless and prints the frame rate, the frame profile, and the asset and pool
+     * statistics.
+     * @param args The number of frames to run and the time step in seconds, both optional, followed by
+     *             the game's options.
+     */
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int frames = args.length > 0 && !isOption(args[0]) ? Integer.parseInt(args[0]) : DEFAULT_FRAMES;
+        float deltaTime = args.length > 1 && !isOption(args[1]) ? Float.parseFloat(args[1])
+                : DEFAULT_DELTA_TIME;
+        WindowController window = standIn(WindowController.class);
+        PepseGameManager game = new PepseGameManager(GameOptions.parse(args));
+        game.initializeGame(new PlaceholderImageReader(window), null, createScriptedInput(), window);
+        FrameProfiler profiler = game.getProfiler();
+        long start = System.nanoTime();
+        for (frame = 0; frame < frames; frame++) {
+            game.update(deltaTime);
+            if ((frame + 1) % REPORT_PERIOD == 0) {
+                report(profiler, frame + 1, System.nanoTime() - start);
+            }
+        }
+        report(profiler, frames, System.nanoTime() - start);
+        System.out.println(game.getAssets());
+        game.getPools().forEach((name, pool) -> System.out.println(name + " pool: " + pool));
+        game.close();
+    }
+
+    /**
+     * Returns whether a command-line argument is one of the game's options rather than a number.
+     * @param arg The argument.
+     * @return True if it is an option.
+     */
+    private static boolean isOption(String arg) {
+        return arg.startsWith("--");
+    }
+
+    /**
+     * Prints the number of frames run, their rate and the frame profile.
+     * @param profiler The profiler of the game.
+     * @param frames The number of frames run so far.
+     * @param elapsedNanos The wall time they took.
+     */
+    private static void report(FrameProfiler profiler, int frames, long elapsedNanos) {
+        StringBuilder line = new StringBuilder(String.format(
+                "frames=%d fps=%.0f p50=%.3fms p99=%.3fms", frames,
+                frames * NANOS_PER_SECOND / elapsedNanos, profiler.getFramePercentile(50),
+                profiler.getFramePercentile(99)));
+        for (int i = 0; i < FrameProfiler.SECTION_COUNT; i++) {
+            line.append(String.format(" %s=%.3fms", FrameProfiler.nameOf(i), profiler.getAverageMillis(i)));
+        }
+        System.out.println(line);
+    }
+
+    /**
+     * Creates the stand-in keyboard. The avatar walks right for a while, then rests, jumping every so often.
+     * @return The scripted input listener.
+     */
+    private static UserInputListener createScriptedInput() {
+        return (UserInputListener) Proxy.newProxyInstance(HeadlessRunner.class.getClassLoader(),
+                new Class<?>[]{UserInputListener.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("isKeyPressed")) {
+                        int key = (Integer) args[0];
+                        boolean walking = frame % (WALK_FRAMES + REST_FRAMES) < WALK_FRAMES;
+                        return (key == KeyEvent.VK_RIGHT && walking)
+                                || (key == KeyEvent.VK_SPACE && frame % JUMP_PERIOD == 0);
+                    }
+                    return defaultValue(method.getReturnType());
+                });
+    }
+
+    /**
+     * Creates a stand-in for an interface of the engine. The window dimensions are answered; every other
+     * call does nothing and returns a default value.
+     * @param type The interface.
+     * @param <T> The type of the interface.
+     * @return The stand-in.
+     */
+    private static <T> T standIn(Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(HeadlessRunner.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> method.getReturnType() == Vector2.class ? WINDOW_DIMENSIONS
+                        : defaultValue(method.getReturnType())));
+    }
+
+    /**
+     * Returns the default value of a return type.
+     * @param type The return type.
+     * @return False, zero, or null.
+     */
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == float.class) {
+            return 0f;
+        }
+        if (type == double.class) {
+            return 0d;
+        }
+        return null;
+    }
+
+    /**
+     * An image reader that never decodes a file, returning a tiny blank image instead. Nothing is drawn
+     * headless, so the images only need to exist.
+     */
+    private static class PlaceholderImageReader extends ImageReader {
+        private static final ImageRenderable PLACEHOLDER = new ImageRenderable(
+                new BufferedImage(PLACEHOLDER_SIZE, PLACEHOLDER_SIZE, BufferedImage.TYPE_INT_ARGB));
+
+        /**
+         * Constructs a new PlaceholderImageReader.
+         * @param windowController The stand-in window.
+         */
+        PlaceholderImageReader(WindowController windowController) {
+            super(windowController);
+        }
+
+        /**
+         * Returns the placeholder image.
+         * @param imageFilePath Ignored.
+         * @param useTopLeftPixelAsTransparency Ignored.
+         * @return The placeholder image.
+         */
+        @Override
+        public ImageRenderable readImage(String imageFilePath, boolean useTopLeftPixelAsTransparency) {
+            return PLACEHOLDER;
+        }
+    }
+}
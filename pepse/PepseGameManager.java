@@ -11,7 +11,18 @@ import danogl.gui.WindowController;
 import danogl.gui.rendering.Camera;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
+import pepse.util.AssetCache;
+import pepse.util.ColorSupplier;
+import pepse.util.FrameProfiler;
+import pepse.util.MetricsExporter;
+import pepse.util.ObjectPool;
+import pepse.util.TimingWheel;
+import pepse.util.WorldEvents;
 import pepse.world.*;
+import pepse.world.chunks.Chunk;
+import pepse.world.chunks.ChunkData;
+import pepse.world.chunks.ChunkGenerator;
+import pepse.world.chunks.ChunkManager;
 import pepse.world.daynight.Night;
 import pepse.world.daynight.Sun;
 import pepse.world.daynight.SunHalo;
@@ -19,9 +30,12 @@ import pepse.world.trees.Flora;
 import pepse.world.trees.Fruit;
 import pepse.world.trees.Leaf;
 import pepse.world.trees.Tree;
+import pepse.world.trees.TreePools;
 
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.function.Consumer;
 
@@ -38,23 +52,49 @@ import java.util.function.Consumer;
  * @author: Batia
  */
 public class PepseGameManager extends GameManager {
-    private int extraWorld;
     private final int LEAVES_LAYER = Layer.STATIC_OBJECTS + 50;
     private final int CLOUD_LAYER = Layer.STATIC_OBJECTS - 10;
+    private final int GROUND_FILL_LAYER = Layer.STATIC_OBJECTS - 5;
+    private static final int CHUNK_CACHE_CAPACITY = 8;
+    private static final int PREFETCH_CHUNKS = 2;
+    private static final int CHUNK_WORKERS = 2;
+    private static final float STREAMING_BUDGET_MILLIS = 2f;
+    private static final String METRICS_PATH = System.getProperty("pepse.metricsFile");
+    private static final float METRICS_PERIOD = 5f;
+    private final GameOptions options;
     WindowController windowController;
     private float windowHeight;
     private float windowWidth;
     private Vector2 windowDimensions;
     private UserInputListener inputListener;
-    private ImageReader imageReader;
+    private AssetCache assets;
     private Terrain terrain;
+    private ChunkManager chunkManager;
+    private ChunkGenerator chunkGenerator;
     private Avatar gameAvatar;
     private GameObject gameEnergyDisplay;
     private Flora gameFlora;
+    private ChunkRecycler chunkRecycler;
     private Cloud gameCloudInstance;
-    private float leftWorldEdge;
-    private float rightWorldEdge;
     private int seed;
+    private TimingWheel worldTimers;
+    private FrameProfiler profiler;
+    private MetricsExporter metricsExporter;
+
+    /**
+     * Constructs a game with the default options.
+     */
+    public PepseGameManager() {
+        this(new GameOptions());
+    }
+
+    /**
+     * Constructs a game with the given options.
+     * @param options How the world is built and drawn.
+     */
+    public PepseGameManager(GameOptions options) {
+        this.options = options;
+    }
 
     /**
      * Initializes the game by setting up the environment, objects, and camera.
@@ -68,22 +108,25 @@ public class PepseGameManager extends GameManager {
                     UserInputListener inputListener, WindowController windowController) {
         super.initializeGame(imageReader, soundReader, inputListener, windowController);
         this.inputListener = inputListener;
-        this.imageReader = imageReader;
+        this.assets = loadAssets(imageReader);
         this.windowController = windowController;
         this.seed = new Random().nextInt();
+        ColorSupplier.setPaletteMode(options.useColorPalettes());
+        this.worldTimers = new TimingWheel();
         initializeWindowDimensions(windowController);
-        updateInfinityWorldEdges();
         updateLayerCollision();
         createSky();
         createTerrain();
-        createTerrainRange(leftWorldEdge, rightWorldEdge);
+        createFlora();
+        chunkManager.load(windowWidth / Constants.HALF);
         GameObject curSun = createSunAndHalo();
         addYellowRibbon(curSun);
         createNight();
         createCloud();
         gameAvatar = createAvatar();
-        createFlora(0f, windowWidth);
         this.gameEnergyDisplay = createEnergyDisplay();
+        createProfilerOverlay();
+        createMetricsExport();
 
         setCamera(new Camera(gameAvatar, Vector2.of(0, -80),
                 windowController.getWindowDimensions(),
@@ -91,12 +134,19 @@ public class PepseGameManager extends GameManager {
     }
 
     /**
-     * Updates the boundaries of the infinite world for the game.
+     * Reads every image of the game once, so no image is read from disk during gameplay.
+     * @param imageReader Used to read the images.
+     * @return The cache holding the images.
      */
-    private void updateInfinityWorldEdges() {
-        this.leftWorldEdge = -0.5f * windowController.getWindowDimensions().x();
-        this.rightWorldEdge = windowController.getWindowDimensions().x() +
-                (0.5f * windowController.getWindowDimensions().x());
+    private static AssetCache loadAssets(ImageReader imageReader) {
+        AssetCache assetCache = new AssetCache(imageReader);
+        assetCache.preload(true, Constants.IDLE_0_PATH, Constants.IDLE_1_PATH, Constants.IDLE_2_PATH,
+                Constants.IDLE_3_PATH, Constants.RUN_0_PATH, Constants.RUN_1_PATH, Constants.RUN_2_PATH,
+                Constants.RUN_3_PATH, Constants.RUN_4_PATH, Constants.RUN_5_PATH, Constants.JUMP_0_PATH,
+                Constants.JUMP_1_PATH, Constants.JUMP_2_PATH, Constants.JUMP_3_PATH,
+                Constants.RAIN_DROP_PATH);
+        assetCache.preload(false, Constants.CLOUD_PATH, Constants.RIBBON_PATH);
+        return assetCache;
     }
 
     /**
@@ -110,9 +160,8 @@ public class PepseGameManager extends GameManager {
      * Creates clouds in the game environment.
      */
     private void createCloud(){
-            Consumer<GameObject> addCallback = (rain) -> gameObjects().addGameObject(rain, CLOUD_LAYER);
-        Consumer<GameObject> removeCallback = (rain) -> gameObjects().removeGameObject(rain, CLOUD_LAYER);
-        this.gameCloudInstance = new Cloud(addCallback, removeCallback, imageReader);
+        Consumer<GameObject> addCallback = (rain) -> gameObjects().addGameObject(rain, CLOUD_LAYER);
+        this.gameCloudInstance = new Cloud(addCallback, assets);
         GameObject cloud = gameCloudInstance.createCloud(windowDimensions, gameCloudInstance);
         gameObjects().addGameObject(cloud, CLOUD_LAYER);
     }
@@ -122,7 +171,7 @@ public class PepseGameManager extends GameManager {
      * @param sun The sun object.
      */
     private void addYellowRibbon(GameObject sun) {
-        Renderable renderable = imageReader.readImage("assets/yellow.png", false);
+        Renderable renderable = assets.getImage(Constants.RIBBON_PATH, false);
         GameObject yellowRibbon = new GameObject(sun.getCenter(),
                 Vector2.ONES.mult(90), renderable);
         yellowRibbon.setCenter(sun.getCenter());
@@ -139,28 +188,99 @@ public class PepseGameManager extends GameManager {
         this.windowHeight = windowController.getWindowDimensions().y();
         this.windowWidth = windowController.getWindowDimensions().x();
         this.windowDimensions = Vector2.of(windowWidth, windowHeight);
-        this.extraWorld = (int) (Math.ceil(windowWidth / 2));
-    }
-
-    /**
-     * Creates flora within a specified range.
-     * @param startRange The starting position of the range.
-     * @param endRange The ending position of the range.
-     */
-    private void createFlora(float startRange , float endRange){
-        this.gameFlora = new Flora(terrain::groundHeightAt, seed);
-        HashSet<Tree> trees = gameFlora.createInRange((int) startRange, (int) endRange);
-        for(Tree curTree: trees){
-            gameObjects().addGameObject(curTree.getTrunk(), Layer.STATIC_OBJECTS);
-            HashSet<Leaf> leaves = curTree.getLeaves();
-            HashSet<Fruit> fruits = curTree.getFruits();
-            for(Leaf curLeaf: leaves){
-                gameObjects().addGameObject(curLeaf, LEAVES_LAYER);
-            }
-            for (Fruit curFruit : fruits){
-                curFruit.addToEnergy(gameAvatar::updateEnergy);
-                gameObjects().addGameObject(curFruit, Layer.STATIC_OBJECTS);
-            }
+    }
+
+    /**
+     * Creates the flora of the game. Trees are planted chunk by chunk, together with the terrain, and
+     * their leaves are swayed by a single driver.
+     */
+    private void createFlora(){
+        this.gameFlora = new Flora(terrain::groundHeightAt, seed, worldTimers);
+        gameObjects().addGameObject(gameFlora.getPools().getLeafSway(), Layer.BACKGROUND);
+        if (options.useCanopyLod()) {
+            float detailDistance = windowWidth / Constants.HALF + Constants.TREE_TOP_SIZE;
+            gameFlora.enableCanopyLod(detailDistance, this::addTreeTop, this::removeTreeTop);
+        }
+        gameFlora.setFruitCallbacks(this::removeEatenFruit, this::addGrownFruit);
+        this.chunkRecycler = new ChunkRecycler(terrain, gameFlora);
+    }
+
+    /**
+     * Removes an eaten fruit from the game. Fruits of trees without a canopy are owned by their chunk.
+     * @param tree The tree the fruit grew on.
+     * @param fruit The fruit.
+     */
+    private void removeEatenFruit(Tree tree, Fruit fruit){
+        if (tree.getCanopy() == null) {
+            chunkManager.removeFromChunk(tree.getTrunk().getTopLeftCorner().x(), fruit, Layer.STATIC_OBJECTS);
+        } else {
+            gameObjects().removeGameObject(fruit, Layer.STATIC_OBJECTS);
+        }
+    }
+
+    /**
+     * Adds a regrown fruit to the game. Fruits of trees without a canopy are owned by their chunk.
+     * @param tree The tree the fruit grew on.
+     * @param fruit The fruit.
+     */
+    private void addGrownFruit(Tree tree, Fruit fruit){
+        fruit.addToEnergy(energy -> gameAvatar.updateEnergy(energy));
+        if (tree.getCanopy() == null) {
+            chunkManager.addToChunk(tree.getTrunk().getTopLeftCorner().x(), fruit, Layer.STATIC_OBJECTS);
+        } else {
+            gameObjects().addGameObject(fruit, Layer.STATIC_OBJECTS);
+        }
+    }
+
+    /**
+     * Adds the leaves and fruits a tree just got to the game.
+     * @param tree The tree.
+     */
+    private void addTreeTop(Tree tree){
+        for(Leaf curLeaf: tree.getLeaves()){
+            gameObjects().addGameObject(curLeaf, LEAVES_LAYER);
+        }
+        for (Fruit curFruit : tree.getFruits()){
+            curFruit.addToEnergy(energy -> gameAvatar.updateEnergy(energy));
+            gameObjects().addGameObject(curFruit, Layer.STATIC_OBJECTS);
+        }
+    }
+
+    /**
+     * Removes the leaves and fruits of a tree from the game, before the tree gives them up.
+     * @param tree The tree.
+     */
+    private void removeTreeTop(Tree tree){
+        for(Leaf curLeaf: tree.getLeaves()){
+            gameObjects().removeGameObject(curLeaf, LEAVES_LAYER);
+        }
+        for (Fruit curFruit : tree.getFruits()){
+            gameObjects().removeGameObject(curFruit, Layer.STATIC_OBJECTS);
+        }
+    }
+
+    /**
+     * Plants the tree of a chunk column. Every part of the tree is registered with the column holding its
+     * trunk, so the tree enters and leaves the game together with the terrain under it. With the canopy
+     * level of detail, the tree starts with its canopy and gets its leaves and fruits from the flora later.
+     * @param chunk The chunk the tree belongs to.
+     * @param column The column inside the chunk.
+     */
+    private void plantTree(Chunk chunk, int column){
+        int treeX = chunk.getIndex() * Constants.CHUNK_WIDTH + column * Constants.BLOCK_SIZE;
+        Tree tree = gameFlora.plantTree(treeX);
+        chunk.add(column, tree.getTrunk(), Layer.STATIC_OBJECTS);
+        if (tree.getCanopy() != null) {
+            chunk.add(column, tree.getCanopy(), LEAVES_LAYER);
+        }
+        HashSet<Leaf> leaves = tree.getLeaves();
+        HashSet<Fruit> fruits = tree.getFruits();
+        for(Leaf curLeaf: leaves){
+            chunk.add(column, curLeaf, LEAVES_LAYER);
+        }
+        for (Fruit curFruit : fruits){
+            curFruit.addToEnergy(energy -> gameAvatar.updateEnergy(energy));
+            chunk.add(column, curFruit, Layer.STATIC_OBJECTS);
         }
     }
 
@@ -173,24 +293,154 @@ public class PepseGameManager extends GameManager {
     }
 
     /**
-     * Initializes the terrain object for the game.
+     * Initializes the terrain object for the game, and the chunk manager that streams it.
+     * Chunks are kept resident up to a window width away from the avatar, like the old world edges,
+     * and are only unloaded one extra chunk further away. The chunks ahead of the avatar are generated
+     * on background threads, and their columns are added and removed within a per-frame time budget.
      */
     private void createTerrain(){
         Terrain terrain = new Terrain(windowDimensions, seed);
         this.terrain = terrain;
+        this.chunkManager = new ChunkManager(Constants.CHUNK_WIDTH, windowWidth, Constants.CHUNK_WIDTH,
+                CHUNK_CACHE_CAPACITY, this::createTerrainChunk, this::buildChunkColumn,
+                (go, layer) -> gameObjects().addGameObject(go, layer),
+                (go, layer) -> gameObjects().removeGameObject(go, layer),
+                this::discardTerrainChunk);
+        this.chunkGenerator = new ChunkGenerator(this::generateChunkData, CHUNK_WORKERS);
+        chunkManager.setPrefetcher(chunkGenerator, PREFETCH_CHUNKS);
+        chunkManager.setFrameBudget(STREAMING_BUDGET_MILLIS);
     }
 
+    /**
+     * Frees a chunk that was dropped from the chunk cache: recycles its terrain and flora objects and
+     * forgets its height map and trees.
+     * @param chunk The discarded chunk.
+     */
+    private void discardTerrainChunk(Chunk chunk){
+        if (profiler != null) {
+            profiler.begin(FrameProfiler.EVICTION);
+        }
+        WorldEvents.ChunkEvicted event = new WorldEvents.ChunkEvicted();
+        event.begin();
+        event.chunkIndex = chunk.getIndex();
+        event.objectsRemoved = chunk.size();
+        chunkRecycler.recycle(chunk);
+        event.commit();
+        if (profiler != null) {
+            profiler.end(FrameProfiler.EVICTION);
+        }
+    }
 
     /**
-     * Creates terrain blocks within the specified range.
-     * @param startRange The starting position of the range.
-     * @param endRange The ending position of the range.
+     * Creates an empty terrain chunk from its generated data. The heights and colors were computed by the
+     * chunk generator, usually in the background, the GameObjects are created column by column later.
+     * @param chunkIndex The index of the chunk.
+     * @return A chunk ready to have its columns built.
      */
-    private void createTerrainRange(float startRange , float endRange){
-        List<Block> blocks = terrain.createInRange((int) startRange, (int) endRange);
-        for (Block block : blocks) {
-            gameObjects().addGameObject(block, Layer.STATIC_OBJECTS);
+    private Chunk createTerrainChunk(int chunkIndex){
+        ChunkData data = chunkGenerator.take(chunkIndex);
+        terrain.commitHeights(data);
+        return new Chunk(chunkIndex, data);
+    }
+
+    /**
+     * Computes the data of a chunk: its terrain, and the columns where trees grow. Runs on the chunk
+     * generator's worker threads.
+     * @param chunkIndex The index of the chunk.
+     * @return The chunk data.
+     */
+    private ChunkData generateChunkData(int chunkIndex){
+        WorldEvents.ChunkGenerated event = new WorldEvents.ChunkGenerated();
+        event.begin();
+        ChunkData data = terrain.generateChunk(chunkIndex);
+        boolean[] treeColumns = gameFlora.treeColumnsInChunk(chunkIndex);
+        data.setTreeColumns(treeColumns);
+        event.chunkIndex = chunkIndex;
+        for (boolean hasTree : treeColumns) {
+            event.treeCount += hasTree ? 1 : 0;
         }
+        event.commit();
+        return data;
+    }
+
+    /**
+     * Creates the objects of a single column of a chunk: its terrain, and its tree if it has one.
+     * @param chunk The chunk the column belongs to.
+     * @param column The column inside the chunk.
+     */
+    private void buildChunkColumn(Chunk chunk, int column){
+        WorldEvents.ColumnBuilt event = new WorldEvents.ColumnBuilt();
+        event.begin();
+        int sizeBefore = chunk.size();
+        buildTerrainColumn(chunk, column);
+        if (chunk.getData().hasTree(column)) {
+            plantTree(chunk, column);
+            event.treePlanted = true;
+        }
+        event.chunkIndex = chunk.getIndex();
+        event.column = column;
+        event.objectsCreated = chunk.size() - sizeBefore;
+        event.commit();
+    }
+
+    /**
+     * Creates the terrain blocks of a single column of a chunk.
+     * @param chunk The chunk the blocks belong to.
+     * @param column The column inside the chunk.
+     */
+    private void buildTerrainColumn(Chunk chunk, int column){
+        switch (options.getTerrainMode()) {
+            case BAKED:
+                buildBakedColumn(chunk, column);
+                break;
+            case MERGED:
+                buildMergedColumn(chunk, column);
+                break;
+            default:
+                List<Block> blocks = terrain.createBlocks(chunk.getData(), column);
+                for (Block block : blocks) {
+                    chunk.add(column, block, groundSurfaceLayer());
+                }
+                break;
+        }
+    }
+
+    /**
+     * Creates the merged terrain column of a single column of a chunk. Only the surface of the column is
+     * added to a colliding layer, the fill below it is drawn on a layer that takes no part in collisions.
+     * @param chunk The chunk the column belongs to.
+     * @param column The column inside the chunk.
+     */
+    private void buildMergedColumn(Chunk chunk, int column){
+        GroundColumn groundColumn = terrain.createColumn(chunk.getData(), column);
+        chunk.add(column, groundColumn.getSurface(), groundSurfaceLayer());
+        if (groundColumn.getFill() != null) {
+            chunk.add(column, groundColumn.getFill(), GROUND_FILL_LAYER);
+        }
+    }
+
+    /**
+     * Creates a single column of a chunk whose ground is drawn by one baked sprite. The sprite is owned by
+     * the first column, and the columns only add invisible surface colliders, if the avatar needs them.
+     * @param chunk The chunk the column belongs to.
+     * @param column The column inside the chunk.
+     */
+    private void buildBakedColumn(Chunk chunk, int column){
+        if (column == 0) {
+            chunk.add(column, terrain.createChunkSprite(chunk.getData()), GROUND_FILL_LAYER);
+        }
+        if (!options.isAnalyticGround()) {
+            chunk.add(column, terrain.createSurfaceCollider(chunk.getData(), column), Layer.STATIC_OBJECTS);
+        }
+    }
+
+    /**
+     * Returns the layer of the ground blocks the avatar stands on. When the avatar stands on the terrain's
+     * height directly the blocks are visual only, and live on a layer that takes no part in collisions.
+     * @return The layer for ground surface blocks.
+     */
+    private int groundSurfaceLayer(){
+        return options.isAnalyticGround() ? GROUND_FILL_LAYER : Layer.STATIC_OBJECTS;
     }
 
     /**
@@ -222,7 +472,10 @@ public class PepseGameManager extends GameManager {
         int x = (int) Math.floor((windowDimensions.x() / Constants.HALF) / Constants.BLOCK_SIZE)
                     * Constants.BLOCK_SIZE;
         Vector2 avatarPos = new Vector2(x, terrain.groundHeightAt(x) - 30);
-        Avatar avatar = new Avatar(avatarPos, inputListener, imageReader);
+        Avatar avatar = new Avatar(avatarPos, inputListener, assets);
+        if (options.isAnalyticGround()) {
+            avatar.useGroundHeight(terrain::surfaceHeightAt);
+        }
         gameObjects().addGameObject(avatar, Layer.DEFAULT);
         avatar.registerObserver(gameCloudInstance);
         return avatar;
@@ -233,70 +486,142 @@ public class PepseGameManager extends GameManager {
      * @return The energy display GameObject.
      */
     private GameObject createEnergyDisplay(){
-        GameObject energyDisplay = EnergyDisplay.create(gameAvatar::getCurEnergy);
+        GameObject energyDisplay = EnergyDisplay.create(gameAvatar::getEnergy);
         gameObjects().addGameObject(energyDisplay, Layer.UI);
         return energyDisplay;
     }
 
     /**
-     * Updates the game state each frame. Monitors the avatar's position to dynamically add or remove
-     * terrain and game objects as the avatar moves closer to the world's edges.
-     * @param deltaTime The time elapsed since the last frame in seconds.
+     * Creates the frame profiler and its overlay, hidden until its toggle key is pressed.
      */
-    @Override
-    public void update(float deltaTime) {
-//        System.out.printf("right edge: %s\n", rightWorldEdge);
-//        System.out.printf("left edge: %s\n", leftWorldEdge);
-        super.update(deltaTime);
-        float avatarLocation = gameAvatar.getTopLeftCorner().x();
-        if (avatarLocation > rightWorldEdge - extraWorld) {
-            addToRight();
-        } else if (avatarLocation < leftWorldEdge + extraWorld) {
-            addToLeft();
-        }
+    private void createProfilerOverlay() {
+        this.profiler = new FrameProfiler();
+        gameCloudInstance.getRain().setProfiler(profiler);
+        ProfilerOverlay overlay = new ProfilerOverlay(profiler, inputListener, gameObjects());
+        getPools().forEach(overlay::addPool);
+        gameObjects().addGameObject(overlay, Layer.UI);
+    }
 
+    /**
+     * Returns the profiler timing every frame of the game.
+     * @return The frame profiler, or null before the game is initialized.
+     */
+    FrameProfiler getProfiler() {
+        return profiler;
     }
 
     /**
-     * Removes game objects that are outside the visible world boundaries.
+     * Returns the cache holding the game's images, with its load metrics.
+     * @return The asset cache, or null before the game is initialized.
      */
-    private void removeUnseenObjects() {
-        for (GameObject go : gameObjects()) {
-            if (go.getCenter().x() < leftWorldEdge || go.getCenter().x() > rightWorldEdge) {
-                if (go.getTag().equals(Constants.GROUND_TAG) || go.getTag().equals(Constants.TREE_TRUNK_TAG)
-                    || go.getTag().equals(Constants.LEAF_TAG) || go.getTag().equals(Constants.FRUIT_TAG)) {
-//                    System.out.printf("go of %s was removed\n", go.getTag());
-                    gameObjects().removeGameObject(go);
-                }
-            }
+    AssetCache getAssets() {
+        return assets;
+    }
+
+    /**
+     * Returns the object pools of the terrain and the trees, by name.
+     * @return The pools, in a fixed order.
+     */
+    Map<String, ObjectPool<?>> getPools() {
+        Map<String, ObjectPool<?>> pools = new LinkedHashMap<>();
+        pools.put("block", terrain.getBlockPool());
+        pools.put("fill", terrain.getFillPool());
+        TreePools treePools = gameFlora.getPools();
+        pools.put("trunk", treePools.getTrunkPool());
+        pools.put("leaf", treePools.getLeafPool());
+        pools.put("fruit", treePools.getFruitPool());
+        pools.put("canopy", treePools.getCanopyPool());
+        return pools;
+    }
+
+    /**
+     * Appends a snapshot of the world's metrics to a CSV file every few seconds, if a file was given with
+     * the pepse.metricsFile system property.
+     */
+    private void createMetricsExport() {
+        if (METRICS_PATH == null) {
+            return;
+        }
+        MetricsExporter exporter = new MetricsExporter(METRICS_PATH);
+        this.metricsExporter = exporter;
+        exporter.addColumn("frameP50Millis", () -> profiler.getFramePercentile(50));
+        exporter.addColumn("frameP99Millis", () -> profiler.getFramePercentile(99));
+        for (int i = 0; i < FrameProfiler.SECTION_COUNT; i++) {
+            int section = i;
+            exporter.addColumn(FrameProfiler.nameOf(section) + "Millis",
+                    () -> profiler.getAverageMillis(section));
         }
+        exporter.addColumn("residentChunks", chunkManager::getResidentCount);
+        exporter.addColumn("pendingColumns", chunkManager::getPendingWork);
+        exporter.addColumn("chunkCacheHits", chunkManager::getCacheHits);
+        exporter.addColumn("chunkCacheMisses", chunkManager::getCacheMisses);
+        exporter.addColumn("chunkGenerationFailures", chunkGenerator::getFailedCount);
+        exporter.addColumn("residentTrees", gameFlora::getResidentTreeCount);
+        exporter.addColumn("residentTreeParts", gameFlora::getResidentPartCount);
+        exporter.addColumn("floraRetainedBytes", gameFlora::getRetainedBytes);
+        exporter.addColumn("detailedTrees", gameFlora::getDetailedTreeCount);
+        exporter.addColumn("eatenFruits", () -> gameFlora.getFruitLedger().getEatenCount());
+        exporter.addColumn("rainDrops", () -> gameCloudInstance.getRain().getLiveCount());
+        exporter.addColumn("worldTimers", worldTimers::size);
+        exporter.addColumn("assetLoads", assets::getLoadCount);
+        exporter.addColumn("assetMisses", assets::getMissCount);
+        exporter.addColumn("assetPreloadMillis", assets::getPreloadMillis);
+        getPools().forEach((name, pool) -> {
+            exporter.addColumn(name + "PoolFree", pool::getFreeCount);
+            exporter.addColumn(name + "PoolReuseRate", pool::getReuseRate);
+        });
+        worldTimers.scheduleRepeating(METRICS_PERIOD, METRICS_PERIOD,
+                () -> exporter.snapshot(worldTimers.getTime()));
     }
 
     /**
-     * Adds new terrain and flora to the right side of the world when the avatar moves close to the edge.
+     * Updates the game state each frame. Keeps the chunks around the avatar resident: every streamed
+     * object is owned by a chunk, so leaving the world is just detaching the chunks the avatar moved away
+     * from, and objects outside the chunk system are never looked at. Every step is timed by the frame
+     * profiler.
+     * @param deltaTime The time elapsed since the last frame in seconds.
      */
-    private void addToRight() {
-        createTerrainRange(rightWorldEdge, rightWorldEdge + extraWorld);
-        removeUnseenObjects();
-        this.rightWorldEdge += extraWorld;
-        this.leftWorldEdge += extraWorld;
+    @Override
+    public void update(float deltaTime) {
+        profiler.beginFrame();
+        profiler.begin(FrameProfiler.ENGINE);
+        super.update(deltaTime);
+        profiler.end(FrameProfiler.ENGINE);
+        profiler.exclude(FrameProfiler.ENGINE, FrameProfiler.RAIN);
+        float avatarLocation = gameAvatar.getTopLeftCorner().x();
+        worldTimers.advance(deltaTime);
+        profiler.begin(FrameProfiler.CHUNKS);
+        chunkManager.update(avatarLocation);
+        profiler.end(FrameProfiler.CHUNKS);
+        profiler.exclude(FrameProfiler.CHUNKS, FrameProfiler.EVICTION);
+        profiler.begin(FrameProfiler.FLORA);
+        gameFlora.updateDetail(avatarLocation);
+        profiler.end(FrameProfiler.FLORA);
+        profiler.begin(FrameProfiler.HUD);
+        EnergyDisplay.update();
+        profiler.end(FrameProfiler.HUD);
     }
 
     /**
-     * Adds new terrain and flora to the left side of the world when the avatar moves close to the edge.
+     * Stops the game's background threads: the chunk generator's workers and the metrics writer, which
+     * finishes the snapshots it was given first.
      */
-    private void addToLeft(){
-        createTerrainRange(leftWorldEdge - extraWorld, leftWorldEdge);
-        removeUnseenObjects();
-        this.leftWorldEdge -=  extraWorld;
-        this.rightWorldEdge -=  extraWorld;
+    public void close() {
+        if (chunkGenerator != null) {
+            chunkGenerator.close();
+        }
+        if (metricsExporter != null) {
+            metricsExporter.close();
+        }
     }
 
     /**
      * main function to run the Pepse game.
-     * @param args Command-line arguments (not used).
+     * @param args Command-line options, see GameOptions.
      */
     public static void main(String[] args) {
-        new PepseGameManager().run();
+        PepseGameManager game = new PepseGameManager(GameOptions.parse(args));
+        game.run();
+        game.close();
     }
 }
@@ -0,0 +1,124 @@
+package pepse.util;
+
+import danogl.gui.ImageReader;
+import danogl.gui.rendering.ImageRenderable;
+
+import java.util.HashMap;
+
+/**
+ * Keeps every image of the game in memory, read once per path by the game's ImageReader. The images are
+ * preloaded at startup, so later lookups during gameplay only read a map and never touch the disk. The
+ * preload reads the images one after another on the calling thread, since the ImageReader is not safe to
+ * share between threads and it decodes the images exactly as the engine draws them. Counts and times of
+ * the loads are kept for reporting.
+ * @author: Batia
+ */
+public class AssetCache {
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private final ImageReader imageReader;
+    private final HashMap<String, ImageRenderable> opaqueImages;
+    private final HashMap<String, ImageRenderable> transparentImages;
+    private int loadCount;
+    private long hitCount;
+    private long missCount;
+    private long preloadNanos;
+
+    /**
+     * Constructs an empty AssetCache.
+     * @param imageReader The reader every image is read with.
+     */
+    public AssetCache(ImageReader imageReader) {
+        this.imageReader = imageReader;
+        this.opaqueImages = new HashMap<>();
+        this.transparentImages = new HashMap<>();
+    }
+
+    /**
+     * Reads the given images and keeps them. Images already in the cache are skipped.
+     * @param useTopLeftPixelAsTransparency Whether the color of the top-left pixel of each image is
+     *                                      transparent.
+     * @param paths The paths of the images.
+     */
+    public void preload(boolean useTopLeftPixelAsTransparency, String... paths) {
+        long start = System.nanoTime();
+        HashMap<String, ImageRenderable> images = imagesOf(useTopLeftPixelAsTransparency);
+        for (String path : paths) {
+            if (!images.containsKey(path)) {
+                images.put(path, imageReader.readImage(path, useTopLeftPixelAsTransparency));
+                loadCount++;
+            }
+        }
+        preloadNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * Returns the image of a path, reading it only if it was not loaded before.
+     * @param path The path of the image.
+     * @param useTopLeftPixelAsTransparency Whether the color of the top-left pixel is transparent.
+     * @return The image, shared by every caller asking for the same path.
+     */
+    public ImageRenderable getImage(String path, boolean useTopLeftPixelAsTransparency) {
+        HashMap<String, ImageRenderable> images = imagesOf(useTopLeftPixelAsTransparency);
+        ImageRenderable image = images.get(path);
+        if (image != null) {
+            hitCount++;
+            return image;
+        }
+        missCount++;
+        image = imageReader.readImage(path, useTopLeftPixelAsTransparency);
+        images.put(path, image);
+        loadCount++;
+        return image;
+    }
+
+    /**
+     * Returns the number of images read so far.
+     * @return The number of loaded images.
+     */
+    public int getLoadCount() {
+        return loadCount;
+    }
+
+    /**
+     * Returns the number of lookups answered from memory.
+     * @return The number of cache hits.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of lookups that had to read an image, which should stay 0 after the preload.
+     * @return The number of cache misses.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the total time spent preloading.
+     * @return The time in milliseconds.
+     */
+    public float getPreloadMillis() {
+        return (float) preloadNanos / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Returns a readable summary of the cache.
+     * @return The load count, lookups and preload time.
+     */
+    @Override
+    public String toString() {
+        return String.format("AssetCache[loaded=%d, hits=%d, misses=%d, preload=%.1fms]",
+                loadCount, hitCount, missCount, getPreloadMillis());
+    }
+
+    /**
+     * Returns the map holding images of the given transparency.
+     * @param useTopLeftPixelAsTransparency Whether the top-left pixel is transparent.
+     * @return The map from paths to images.
+     */
+    private HashMap<String, ImageRenderable> imagesOf(boolean useTopLeftPixelAsTransparency) {
+        return useTopLeftPixelAsTransparency ? transparentImages : opaqueImages;
+    }
+}
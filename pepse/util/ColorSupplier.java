@@ -1,7 +1,8 @@
 package pepse.util;
 
 import java.awt.*;
-import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Provides procedurally-generated colors around a pivot.
@@ -9,7 +10,38 @@ import java.util.Random;
  */
 public final class ColorSupplier {
     private static final int DEFAULT_COLOR_DELTA = 10;
-    private final static Random random = new Random();
+    private static final int GREEN_BITS_SHIFT = 21;
+    private static final int BLUE_BITS_SHIFT = 42;
+    private static final int PALETTE_SIZE = 64;
+    private static final ConcurrentHashMap<Color, Color[]> palettes = new ConcurrentHashMap<>();
+    private static volatile boolean paletteMode = true;
+
+    /**
+     * Turns the palette mode on or off. In palette mode, keyed colors are picked from a fixed set of
+     * variants of their base color, so objects of the same kind share a few Color instances.
+     *
+     * @param enabled True to pick keyed colors from palettes.
+     */
+    public static void setPaletteMode(boolean enabled) {
+        paletteMode = enabled;
+    }
+
+    /**
+     * Returns the fixed variants of a base color, generating them on first use. The variants are the
+     * same in every run, and are spread like the colors of approximateColor.
+     *
+     * @param baseColor The base color.
+     * @return The variants of the base color. Must not be modified.
+     */
+    public static Color[] palette(Color baseColor) {
+        return palettes.computeIfAbsent(baseColor, base -> {
+            Color[] variants = new Color[PALETTE_SIZE];
+            for (int i = 0; i < PALETTE_SIZE; i++) {
+                variants[i] = hashedColor(base, 0, i, HashRandom.PALETTE);
+            }
+            return variants;
+        });
+    }
 
     /**
      * Returns a color similar to baseColor, with a default delta.
@@ -64,6 +96,45 @@ public final class ColorSupplier {
                 randomChannelInRange(baseColor.getBlue()-colorDelta, baseColor.getBlue()+colorDelta));
     }
 
+    /**
+     * Returns a color similar to baseColor, with a default delta, that depends only on the given key.
+     * Lets world generation get reproducible colors from any thread. In palette mode the color is one of
+     * the shared variants of the base color.
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @param seed The world seed.
+     * @param coordinate The world coordinate the color belongs to.
+     * @param purpose What the color is used for, one of the HashRandom purpose constants.
+     * @return A color similar to baseColor.
+     * @see pepse.util.HashRandom
+     */
+    public static Color approximateColor(Color baseColor, int seed, long coordinate, int purpose) {
+        if (paletteMode) {
+            return palette(baseColor)[HashRandom.nextInt(seed, coordinate, purpose, PALETTE_SIZE)];
+        }
+        return hashedColor(baseColor, seed, coordinate, purpose);
+    }
+
+    /**
+     * Returns a color similar to baseColor, with a default delta, hashed from the given key.
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @param seed The world seed.
+     * @param coordinate The world coordinate the color belongs to.
+     * @param purpose What the color is used for, one of the HashRandom purpose constants.
+     * @return A new color similar to baseColor.
+     */
+    private static Color hashedColor(Color baseColor, int seed, long coordinate, int purpose) {
+        long bits = HashRandom.hash(seed, coordinate, purpose);
+        int range = 2 * DEFAULT_COLOR_DELTA + 1;
+        return new Color(
+                clipChannel(baseColor.getRed() - DEFAULT_COLOR_DELTA + HashRandom.inRange(bits, range)),
+                clipChannel(baseColor.getGreen() - DEFAULT_COLOR_DELTA
+                        + HashRandom.inRange(Long.rotateLeft(bits, GREEN_BITS_SHIFT), range)),
+                clipChannel(baseColor.getBlue() - DEFAULT_COLOR_DELTA
+                        + HashRandom.inRange(Long.rotateLeft(bits, BLUE_BITS_SHIFT), range)));
+    }
+
     /**
      * This method generates a random value for a color channel within the given range [min, max].
      *
@@ -72,7 +143,16 @@ public final class ColorSupplier {
      * @return A random number in the range [min, max], clipped to [0,255].
      */
     private static int randomChannelInRange(int min, int max) {
-        int channel = random.nextInt(max-min+1) + min;
+        return clipChannel(ThreadLocalRandom.current().nextInt(max-min+1) + min);
+    }
+
+    /**
+     * Clips a color channel value to [0,255].
+     *
+     * @param channel The channel value.
+     * @return The clipped value.
+     */
+    private static int clipChannel(int channel) {
         return Math.min(255, Math.max(channel, 0));
     }
 }
@@ -0,0 +1,155 @@
+package pepse.util;
+
+import java.util.Arrays;
+
+/**
+ * Measures where the time of every frame goes. The frame is split into sections, each timed with
+ * begin and end calls, and the total time of every frame is kept in a rolling window for percentiles. All
+ * storage is allocated up front, so measuring allocates nothing while the game runs.
+ * @author: Batia
+ */
+public class FrameProfiler {
+    /** Updating the game objects by the engine, excluding the sections measured inside it. */
+    public static final int ENGINE = 0;
+    /** Streaming chunks in and out and building their columns. */
+    public static final int CHUNKS = 1;
+    /** Discarding chunks dropped from the chunk cache and recycling their objects. */
+    public static final int EVICTION = 2;
+    /** Switching trees between their detailed and distant forms. */
+    public static final int FLORA = 3;
+    /** Moving the rain drops. */
+    public static final int RAIN = 4;
+    /** Updating the energy display. */
+    public static final int HUD = 5;
+    /** The number of sections. */
+    public static final int SECTION_COUNT = 6;
+    private static final String[] SECTION_NAMES = {"engine", "chunks", "eviction", "flora", "rain", "hud"};
+    private static final int WINDOW = 240;
+    private static final float NANOS_PER_MILLI = 1_000_000f;
+    private final long[] sectionStart;
+    private final long[] frameNanos;
+    private final float[] averageMillis;
+    private final float[] frameMillis;
+    private final float[] sortedMillis;
+    private long frameStart;
+    private int frameCount;
+    private int windowIndex;
+
+    /**
+     * Constructs a new FrameProfiler with no frames measured.
+     */
+    public FrameProfiler() {
+        this.sectionStart = new long[SECTION_COUNT];
+        this.frameNanos = new long[SECTION_COUNT];
+        this.averageMillis = new float[SECTION_COUNT];
+        this.frameMillis = new float[WINDOW];
+        this.sortedMillis = new float[WINDOW];
+    }
+
+    /**
+     * Returns the display name of a section.
+     * @param section One of the section constants.
+     * @return The name of the section.
+     */
+    public static String nameOf(int section) {
+        return SECTION_NAMES[section];
+    }
+
+    /**
+     * Starts a new frame. Ends the previous one, recording its total time.
+     */
+    public void beginFrame() {
+        long now = System.nanoTime();
+        if (frameStart != 0) {
+            endFrame(now);
+        }
+        frameStart = now;
+        Arrays.fill(frameNanos, 0);
+    }
+
+    /**
+     * Starts timing a section.
+     * @param section One of the section constants.
+     */
+    public void begin(int section) {
+        sectionStart[section] = System.nanoTime();
+    }
+
+    /**
+     * Stops timing a section, adding the time since begin to the section's time in this frame.
+     * @param section One of the section constants.
+     * @return The time since begin, in nanoseconds.
+     */
+    public long end(int section) {
+        long elapsed = System.nanoTime() - sectionStart[section];
+        frameNanos[section] += elapsed;
+        return elapsed;
+    }
+
+    /**
+     * Removes time measured by another section from a section that contained it, so sections never count
+     * the same time twice.
+     * @param section The containing section.
+     * @param nested The section that was measured inside it.
+     */
+    public void exclude(int section, int nested) {
+        frameNanos[section] -= frameNanos[nested];
+    }
+
+    /**
+     * Returns the time a section took in the current frame so far.
+     * @param section One of the section constants.
+     * @return The time in nanoseconds.
+     */
+    public long getFrameNanos(int section) {
+        return frameNanos[section];
+    }
+
+    /**
+     * Returns the average time of a section over recent frames.
+     * @param section One of the section constants.
+     * @return The time in milliseconds.
+     */
+    public float getAverageMillis(int section) {
+        return averageMillis[section];
+    }
+
+    /**
+     * Returns the number of frames measured so far.
+     * @return The number of complete frames.
+     */
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Returns a percentile of the total frame times in the rolling window. Sorts a copy of the window, so it
+     * is meant to be called a few times a second, not for every frame.
+     * @param percentile The percentile, in [0, 100].
+     * @return The frame time in milliseconds, or 0 if no frame was measured.
+     */
+    public float getFramePercentile(float percentile) {
+        int size = Math.min(frameCount, WINDOW);
+        if (size == 0) {
+            return 0;
+        }
+        System.arraycopy(frameMillis, 0, sortedMillis, 0, size);
+        Arrays.sort(sortedMillis, 0, size);
+        int index = Math.min(size - 1, Math.round(percentile / 100f * (size - 1)));
+        return sortedMillis[index];
+    }
+
+    /**
+     * Records the total time of the frame that just ended and folds its sections into the averages.
+     * @param now The time the frame ended at, in nanoseconds.
+     */
+    private void endFrame(long now) {
+        frameMillis[windowIndex] = (now - frameStart) / NANOS_PER_MILLI;
+        windowIndex = (windowIndex + 1) % WINDOW;
+        frameCount++;
+        float weight = 1f / Math.min(frameCount, WINDOW);
+        for (int i = 0; i < SECTION_COUNT; i++) {
+            averageMillis[i] += (frameNanos[i] / NANOS_PER_MILLI - averageMillis[i]) * weight;
+        }
+    }
+}
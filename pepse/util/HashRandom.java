@@ -0,0 +1,103 @@
+package pepse.util;
+
+/**
+ * A stateless random generator for procedural generation. Every value is a hash of a seed, a world
+ * coordinate and a purpose, mixed with the SplitMix64 finalizer, so the same key always gives the same
+ * value. Nothing is allocated and nothing is shared, so it is safe to call from any thread.
+ * @author: Batia
+ */
+public final class HashRandom {
+    /** Purpose of deciding whether a tree grows in a block column. */
+    public static final int TREE = 1;
+    /** Purpose of deciding what grows in a cell of a tree top. */
+    public static final int TREE_TOP = 2;
+    /** Purpose of the colors of ground cells. */
+    public static final int GROUND_COLOR = 3;
+    /** Purpose of the color of tree trunks. */
+    public static final int TRUNK_COLOR = 4;
+    /** Purpose of the colors of leaves. */
+    public static final int LEAF_COLOR = 5;
+    /** Purpose of the colors of fruits. */
+    public static final int FRUIT_COLOR = 6;
+    /** Purpose of the delay before a leaf starts swaying. */
+    public static final int LEAF_SWAY = 7;
+    /** Purpose of the variants of a color palette. */
+    public static final int PALETTE = 8;
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final float FLOAT_UNIT = 0x1.0p-24f;
+
+    /**
+     * Not meant to be instantiated.
+     */
+    private HashRandom() {
+    }
+
+    /**
+     * Returns the 64 random bits of a key.
+     * @param seed The world seed.
+     * @param coordinate The world coordinate the value belongs to.
+     * @param purpose What the value is used for, one of the purpose constants.
+     * @return The random bits.
+     */
+    public static long hash(int seed, long coordinate, int purpose) {
+        long z = mix(seed + GOLDEN_GAMMA);
+        z = mix(z ^ (coordinate + GOLDEN_GAMMA));
+        return mix(z ^ (purpose * GOLDEN_GAMMA));
+    }
+
+    /**
+     * Returns a random int in the range [0, bound) for a key.
+     * @param seed The world seed.
+     * @param coordinate The world coordinate the value belongs to.
+     * @param purpose What the value is used for, one of the purpose constants.
+     * @param bound The upper bound, must be positive.
+     * @return The random int.
+     */
+    public static int nextInt(int seed, long coordinate, int purpose, int bound) {
+        return inRange(hash(seed, coordinate, purpose), bound);
+    }
+
+    /**
+     * Returns a random float in the range [0, bound) for a key.
+     * @param seed The world seed.
+     * @param coordinate The world coordinate the value belongs to.
+     * @param purpose What the value is used for, one of the purpose constants.
+     * @param bound The upper bound.
+     * @return The random float.
+     */
+    public static float nextFloat(int seed, long coordinate, int purpose, float bound) {
+        return (hash(seed, coordinate, purpose) >>> 40) * FLOAT_UNIT * bound;
+    }
+
+    /**
+     * Combines a two dimensional coordinate, such as a column and a row, into a single coordinate.
+     * @param x The first coordinate.
+     * @param y The second coordinate.
+     * @return The combined coordinate.
+     */
+    public static long cell(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Maps 32 of the given random bits to the range [0, bound) without a division.
+     * @param bits The random bits.
+     * @param bound The upper bound, must be positive.
+     * @return A value in [0, bound).
+     */
+    static int inRange(long bits, int bound) {
+        return (int) (((bits >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * The SplitMix64 finalizer.
+     * @param z The value to mix.
+     * @return The mixed value.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
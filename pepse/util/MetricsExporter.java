@@ -0,0 +1,134 @@
+package pepse.util;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Appends snapshots of the game's metrics to a CSV file. Every metric is a named column read from a
+ * supplier; the heap in use and the total count and time of garbage collections are always included, so
+ * hitches can be matched with collections. Snapshots are taken on the game thread and written by a
+ * background thread, so the game never waits for the disk.
+ * @author: Batia
+ */
+public class MetricsExporter {
+    private static final String SEPARATOR = ",";
+    private static final String TIME_COLUMN = "time";
+    private static final String[] JVM_COLUMNS = {"heapUsedBytes", "gcCount", "gcMillis"};
+    private final String path;
+    private final List<String> names;
+    private final List<DoubleSupplier> values;
+    private final ExecutorService writer;
+    private final StringBuilder row;
+    private boolean headerWritten;
+    private volatile boolean failed;
+
+    /**
+     * Constructs a MetricsExporter with no columns. The file is created, or emptied, by the first snapshot.
+     * @param path The path of the CSV file.
+     */
+    public MetricsExporter(String path) {
+        this.path = path;
+        this.names = new ArrayList<>();
+        this.values = new ArrayList<>();
+        this.row = new StringBuilder();
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Adds a column to every snapshot. Columns must be added before the first snapshot.
+     * @param name The name of the column.
+     * @param value Reads the value of the column, on the game thread.
+     */
+    public void addColumn(String name, DoubleSupplier value) {
+        names.add(name);
+        values.add(value);
+    }
+
+    /**
+     * Takes a snapshot of every column and queues it to be written.
+     * @param time The time of the snapshot, in seconds.
+     */
+    public void snapshot(float time) {
+        if (failed) {
+            return;
+        }
+        boolean append = headerWritten;
+        String header = headerWritten ? null : header();
+        headerWritten = true;
+        row.setLength(0);
+        row.append(time);
+        for (DoubleSupplier value : values) {
+            row.append(SEPARATOR).append(value.getAsDouble());
+        }
+        appendJvmColumns();
+        String line = row.append(System.lineSeparator()).toString();
+        writer.execute(() -> write(header, line, append));
+    }
+
+    /**
+     * Stops the background writer after the queued snapshots are written.
+     */
+    public void close() {
+        writer.shutdown();
+    }
+
+    /**
+     * Returns the header line of the file.
+     * @return The column names, separated by commas.
+     */
+    private String header() {
+        StringBuilder header = new StringBuilder(TIME_COLUMN);
+        for (String name : names) {
+            header.append(SEPARATOR).append(name);
+        }
+        for (String name : JVM_COLUMNS) {
+            header.append(SEPARATOR).append(name);
+        }
+        return header.append(System.lineSeparator()).toString();
+    }
+
+    /**
+     * Appends the heap in use and the totals of all garbage collectors to the current row.
+     */
+    private void appendJvmColumns() {
+        long gcCount = 0;
+        long gcMillis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(0, collector.getCollectionCount());
+            gcMillis += Math.max(0, collector.getCollectionTime());
+        }
+        long heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        row.append(SEPARATOR).append(heapUsed).append(SEPARATOR).append(gcCount)
+                .append(SEPARATOR).append(gcMillis);
+    }
+
+    /**
+     * Writes a line to the file, on the writer thread. Stops exporting after the first failure.
+     * @param header The header to write first, or null.
+     * @param line The line to write.
+     * @param append False to empty the file first.
+     */
+    private void write(String header, String line, boolean append) {
+        try (Writer out = new FileWriter(path, append)) {
+            if (header != null) {
+                out.write(header);
+            }
+            out.write(line);
+        } catch (IOException e) {
+            failed = true;
+            System.err.println("Metrics export to " + path + " stopped: " + e.getMessage());
+        }
+    }
+}
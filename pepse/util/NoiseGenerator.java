@@ -6,6 +6,10 @@ public class NoiseGenerator {
     private int[] p;
     private int[] permutation;
     private double startPoint;
+    private double[] octaves;
+    private int yCell;
+    private double yFrac;
+    private double yFade;
 
     /**
      * The constructor of the pepse.util.NoiseGenerator class.
@@ -55,6 +59,23 @@ public class NoiseGenerator {
             p[256 + i] = p[i] = permutation[i];
         }
 
+        // The octaves noise() sums over never change, so compute them once.
+        int octaveCount = 0;
+        for (double currentPoint = startPoint; currentPoint >= 1; currentPoint /= 2.0) {
+            octaveCount++;
+        }
+        this.octaves = new double[octaveCount];
+        double currentPoint = startPoint;
+        for (int i = 0; i < octaveCount; i++) {
+            octaves[i] = currentPoint;
+            currentPoint /= 2.0;
+        }
+
+        // noise() always samples y = 0 and z = 0, so after the seed offset y is the same for every sample.
+        double y = this.seed;
+        this.yCell = (int) Math.floor(y) & 255;
+        this.yFrac = y - Math.floor(y);
+        this.yFade = fade(yFrac);
     }
 
     /**
@@ -73,14 +94,72 @@ public class NoiseGenerator {
      */
     public double noise(double x, double factor) {
         double value = 0.0;
-        double currentPoint = startPoint;
+        for (double currentPoint : octaves) {
+            value += smoothNoise1D(x / currentPoint) * currentPoint;
+        }
+        return value * factor / startPoint;
+    }
 
-        while (currentPoint >= 1) {
-            value += smoothNoise((x / currentPoint), 0, 0) * currentPoint;
-            currentPoint /= 2.0;
+    /**
+     * Batch version of noise(x, factor): fills out[offset + i] with noise(startX + i * stepX, factor) for
+     * every i in [0, count), without allocating.
+     * The result is bit-for-bit identical to calling noise() for every x (up to the sign of an exact zero),
+     * so the same seed keeps producing the same world.
+     *
+     * @param startX the first x to receive noise for.
+     * @param stepX the distance between two consecutive x values (in our case, the block size).
+     * @param factor describes how large the noise should be, as in noise(x, factor).
+     * @param out the array to fill.
+     * @param offset the index in out of the noise for startX.
+     * @param count the number of x values to fill.
+     */
+    public void noise(double startX, double stepX, double factor, double[] out, int offset, int count) {
+        for (int i = 0; i < count; i++) {
+            out[offset + i] = noise(startX + i * stepX, factor);
         }
+    }
 
-        return value * factor / startPoint;
+    /**
+     * Batch version of noise(x, factor) for float arrays: fills out[offset + i] with
+     * (float) noise(startX + i * stepX, factor) for every i in [0, count), without allocating.
+     *
+     * @param startX the first x to receive noise for.
+     * @param stepX the distance between two consecutive x values (in our case, the block size).
+     * @param factor describes how large the noise should be, as in noise(x, factor).
+     * @param out the array to fill.
+     * @param offset the index in out of the noise for startX.
+     * @param count the number of x values to fill.
+     */
+    public void noise(double startX, double stepX, double factor, float[] out, int offset, int count) {
+        for (int i = 0; i < count; i++) {
+            out[offset + i] = (float) noise(startX + i * stepX, factor);
+        }
+    }
+
+    /**
+     * smoothNoise(x, 0, 0) specialised for the 1D case noise() uses. Since z is always 0 its fade is 0 and
+     * the far z face of the cube never contributes, and y is the same for every sample so its cell and fade
+     * curve are computed once in init(). When the seed is a whole number (as in Terrain) the fade of y is
+     * 0 too, and only the two x corners are left.
+     */
+    private double smoothNoise1D(double x) {
+        // Offset x by the seed value, exactly as smoothNoise does
+        x += this.seed;
+        x += this.seed;
+
+        int X = (int) Math.floor(x) & 255;
+        x -= Math.floor(x);
+        double u = fade(x);
+
+        int A = p[X] + yCell;
+        int B = p[X + 1] + yCell;
+
+        double near = lerp(u, grad(p[p[A]], x, yFrac, 0), grad(p[p[B]], x - 1, yFrac, 0));
+        if (yFade == 0) {
+            return near;
+        }
+        double far = lerp(u, grad(p[p[A + 1]], x, yFrac - 1, 0), grad(p[p[B + 1]], x - 1, yFrac - 1, 0));
+        return lerp(yFade, near, far);
     }
 
 
@@ -0,0 +1,97 @@
+package pepse.util;
+
+import java.util.ArrayDeque;
+import java.util.function.Supplier;
+
+/**
+ * A simple pool of reusable objects. Objects released to the pool are handed out again by obtain()
+ * before any new object is created, up to a bounded number of free objects.
+ * @param <T> The type of the pooled objects.
+ * @author: Batia
+ */
+public class ObjectPool<T> {
+    private final Supplier<T> factory;
+    private final ArrayDeque<T> free;
+    private final int maxFree;
+    private int created;
+    private int reused;
+
+    /**
+     * Constructs a new ObjectPool.
+     * @param factory Creates a new object when the pool is empty.
+     * @param maxFree The maximal number of free objects the pool keeps, extra released objects are dropped.
+     */
+    public ObjectPool(Supplier<T> factory, int maxFree) {
+        this.factory = factory;
+        this.maxFree = maxFree;
+        this.free = new ArrayDeque<>();
+    }
+
+    /**
+     * Returns a free object from the pool, or a new one if the pool is empty.
+     * The caller is responsible for resetting the object before using it.
+     * @return An object of the pooled type.
+     */
+    public T obtain() {
+        T obj = free.pollLast();
+        if (obj == null) {
+            created++;
+            return factory.get();
+        }
+        reused++;
+        return obj;
+    }
+
+    /**
+     * Returns an object that is no longer in use to the pool.
+     * @param obj The object to release, must not be used by the caller afterwards.
+     */
+    public void release(T obj) {
+        if (free.size() < maxFree) {
+            free.addLast(obj);
+        }
+    }
+
+    /**
+     * Returns the number of free objects waiting in the pool.
+     * @return The pool size.
+     */
+    public int getFreeCount() {
+        return free.size();
+    }
+
+    /**
+     * Returns the number of objects the pool had to create.
+     * @return The number of created objects.
+     */
+    public int getCreatedCount() {
+        return created;
+    }
+
+    /**
+     * Returns the number of times obtain() was served by a released object.
+     * @return The number of reused objects.
+     */
+    public int getReusedCount() {
+        return reused;
+    }
+
+    /**
+     * Returns the fraction of obtain() calls that were served by a released object.
+     * @return The reuse rate, between 0 and 1.
+     */
+    public float getReuseRate() {
+        int total = created + reused;
+        return total == 0 ? 0f : (float) reused / total;
+    }
+
+    /**
+     * Returns a short description of the pool's size and reuse rate, for debugging.
+     * @return The pool statistics.
+     */
+    @Override
+    public String toString() {
+        return String.format("free: %d, created: %d, reused: %d (%.1f%%)",
+                free.size(), created, reused, getReuseRate() * 100);
+    }
+}
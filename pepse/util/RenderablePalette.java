@@ -0,0 +1,42 @@
+package pepse.util;
+
+import danogl.gui.rendering.Renderable;
+
+import java.awt.*;
+import java.util.HashMap;
+import java.util.function.Function;
+
+/**
+ * Shared renderables for the palette of a base color. Objects drawn in a palette color all get the same
+ * renderable instance, so each of them only holds a reference. Safe to read from any thread.
+ * @author: Batia
+ * @see pepse.util.ColorSupplier#palette(Color)
+ */
+public class RenderablePalette {
+    private final HashMap<Color, Renderable> shared;
+    private final Function<Color, Renderable> factory;
+
+    /**
+     * Constructs a new RenderablePalette, creating one renderable per variant of the base color.
+     * @param baseColor The base color of the palette.
+     * @param factory Creates a renderable drawing a given color.
+     */
+    public RenderablePalette(Color baseColor, Function<Color, Renderable> factory) {
+        this.factory = factory;
+        this.shared = new HashMap<>();
+        for (Color color : ColorSupplier.palette(baseColor)) {
+            shared.put(color, factory.apply(color));
+        }
+    }
+
+    /**
+     * Returns a renderable drawing the given color: the shared one if the color is in the palette, or a
+     * new one otherwise.
+     * @param color The color to draw.
+     * @return A renderable drawing the color.
+     */
+    public Renderable get(Color color) {
+        Renderable renderable = shared.get(color);
+        return renderable != null ? renderable : factory.apply(color);
+    }
+}
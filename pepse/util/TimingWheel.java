@@ -0,0 +1,253 @@
+package pepse.util;
+
+/**
+ * A hierarchical timing wheel for the world's timed callbacks. Time advances in fixed ticks; every level
+ * of the wheel has SLOTS slots, the first level holding the callbacks due in the next SLOTS ticks and
+ * every further level covering SLOTS times the range of the one below. Callbacks are moved down a level
+ * only when their slot comes up, so each frame costs work for the callbacks that fire, not for all the
+ * callbacks waiting. Scheduling and cancelling are constant time.
+ * @author: Batia
+ */
+public class TimingWheel {
+    private static final float TICK_SECONDS = 1 / 32f;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final int NOT_SCHEDULED = -1;
+    private final Timer[][] wheel;
+    private long currentTick;
+    private float pendingTime;
+    private int size;
+    private long firedCount;
+
+    /**
+     * A callback registered with the wheel. Keep it to cancel the callback.
+     */
+    public static class Timer {
+        private final Runnable task;
+        private final long periodTicks;
+        private long deadline;
+        private int level = NOT_SCHEDULED;
+        private int slot;
+        private Timer prev;
+        private Timer next;
+        private boolean cancelled;
+
+        /**
+         * Constructs a new Timer.
+         * @param task The callback.
+         * @param deadline The tick the callback is due at.
+         * @param periodTicks The number of ticks between repeated calls, or 0 to call it once.
+         */
+        private Timer(Runnable task, long deadline, long periodTicks) {
+            this.task = task;
+            this.deadline = deadline;
+            this.periodTicks = periodTicks;
+        }
+
+        /**
+         * Returns whether the callback will still be called.
+         * @return True if the timer was not cancelled and, unless it repeats, did not fire yet.
+         */
+        public boolean isPending() {
+            return !cancelled && (level != NOT_SCHEDULED || periodTicks > 0);
+        }
+    }
+
+    /**
+     * Constructs an empty TimingWheel at time 0.
+     */
+    public TimingWheel() {
+        this.wheel = new Timer[LEVELS][SLOTS];
+    }
+
+    /**
+     * Returns the time the wheel has advanced to.
+     * @return The time in seconds, in whole ticks.
+     */
+    public float getTime() {
+        return currentTick * TICK_SECONDS;
+    }
+
+    /**
+     * Returns the number of callbacks waiting to fire.
+     * @return The number of scheduled timers.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of callbacks fired so far.
+     * @return The number of fired timers.
+     */
+    public long getFiredCount() {
+        return firedCount;
+    }
+
+    /**
+     * Calls a callback once, after the given delay.
+     * @param delaySeconds The delay, in seconds.
+     * @param task The callback.
+     * @return The timer, to cancel the callback with.
+     */
+    public Timer schedule(float delaySeconds, Runnable task) {
+        Timer timer = new Timer(task, currentTick + toTicks(delaySeconds), 0);
+        insert(timer, false);
+        return timer;
+    }
+
+    /**
+     * Calls a callback after the given delay, and again every period after that, until it is cancelled.
+     * @param delaySeconds The delay before the first call, in seconds.
+     * @param periodSeconds The time between calls, in seconds.
+     * @param task The callback.
+     * @return The timer, to cancel the callback with.
+     */
+    public Timer scheduleRepeating(float delaySeconds, float periodSeconds, Runnable task) {
+        Timer timer = new Timer(task, currentTick + toTicks(delaySeconds),
+                Math.max(1, toTicks(periodSeconds)));
+        insert(timer, false);
+        return timer;
+    }
+
+    /**
+     * Cancels a callback. Does nothing if it already fired or was cancelled.
+     * @param timer The timer of the callback, may be null.
+     */
+    public void cancel(Timer timer) {
+        if (timer == null || timer.cancelled) {
+            return;
+        }
+        timer.cancelled = true;
+        if (timer.level != NOT_SCHEDULED) {
+            unlink(timer);
+        }
+    }
+
+    /**
+     * Advances time and fires every callback that became due, in order of their deadlines.
+     * @param deltaTime The time elapsed, in seconds, since the last call.
+     */
+    public void advance(float deltaTime) {
+        pendingTime += deltaTime;
+        while (pendingTime >= TICK_SECONDS) {
+            pendingTime -= TICK_SECONDS;
+            tick();
+        }
+    }
+
+    /**
+     * Moves the wheel one tick forward: brings callbacks down from the higher levels whose slot came up,
+     * then fires the callbacks of the current slot of the first level.
+     */
+    private void tick() {
+        currentTick++;
+        int topLevel = 0;
+        while (topLevel + 1 < LEVELS && ((currentTick >> (SLOT_BITS * (topLevel + 1) - SLOT_BITS))
+                & SLOT_MASK) == 0) {
+            topLevel++;
+        }
+        for (int level = topLevel; level >= 1; level--) {
+            int slot = (int) ((currentTick >> (SLOT_BITS * level)) & SLOT_MASK);
+            Timer timer = detachSlot(level, slot);
+            while (timer != null) {
+                Timer next = timer.next;
+                timer.next = null;
+                insert(timer, true);
+                timer = next;
+            }
+        }
+        Timer timer = detachSlot(0, (int) (currentTick & SLOT_MASK));
+        while (timer != null) {
+            Timer next = timer.next;
+            timer.next = null;
+            if (!timer.cancelled) {
+                if (timer.periodTicks > 0) {
+                    timer.deadline += timer.periodTicks;
+                    insert(timer, false);
+                }
+                firedCount++;
+                timer.task.run();
+            }
+            timer = next;
+        }
+    }
+
+    /**
+     * Places a timer in the slot matching its deadline, on the lowest level whose range reaches it.
+     * Deadlines that already passed fire on the next tick.
+     * @param timer The timer.
+     * @param cascading True if the timer comes down from a higher level, before the current slot fires,
+     *                  so a deadline of the current tick still fires in this tick.
+     */
+    private void insert(Timer timer, boolean cascading) {
+        long earliest = cascading ? currentTick : currentTick + 1;
+        if (timer.deadline < earliest) {
+            timer.deadline = earliest;
+        }
+        long delta = timer.deadline - currentTick;
+        int level = 0;
+        while (level + 1 < LEVELS && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        long deadline = Math.min(timer.deadline, currentTick + (1L << (SLOT_BITS * LEVELS)) - 1);
+        int slot = (int) ((deadline >> (SLOT_BITS * level)) & SLOT_MASK);
+        timer.level = level;
+        timer.slot = slot;
+        timer.prev = null;
+        timer.next = wheel[level][slot];
+        if (timer.next != null) {
+            timer.next.prev = timer;
+        }
+        wheel[level][slot] = timer;
+        size++;
+    }
+
+    /**
+     * Removes a scheduled timer from its slot.
+     * @param timer The timer.
+     */
+    private void unlink(Timer timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            wheel[timer.level][timer.slot] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        timer.prev = null;
+        timer.next = null;
+        timer.level = NOT_SCHEDULED;
+        size--;
+    }
+
+    /**
+     * Empties a slot, returning its timers as a chain linked by their next fields. The timers are marked
+     * as not scheduled, so cancelling one of them while the chain is processed only flags it.
+     * @param level The level of the slot.
+     * @param slot The slot.
+     * @return The first timer of the chain, or null if the slot was empty.
+     */
+    private Timer detachSlot(int level, int slot) {
+        Timer first = wheel[level][slot];
+        wheel[level][slot] = null;
+        for (Timer timer = first; timer != null; timer = timer.next) {
+            timer.prev = null;
+            timer.level = NOT_SCHEDULED;
+            size--;
+        }
+        return first;
+    }
+
+    /**
+     * Converts a time to a whole number of ticks, rounding up so callbacks never fire early.
+     * @param seconds The time, in seconds.
+     * @return The number of ticks.
+     */
+    private static long toTicks(float seconds) {
+        return Math.max(0, (long) Math.ceil(seconds / TICK_SECONDS));
+    }
+}
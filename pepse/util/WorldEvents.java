@@ -0,0 +1,129 @@
+package pepse.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The Java Flight Recorder events of the world. Each event is timed by calling begin before the work and
+ * commit after it. Events cost almost nothing unless a recording is running, for example when the game is
+ * started with -XX:StartFlightRecording, so they are always emitted.
+ * @author: Batia
+ */
+public final class WorldEvents {
+    private static final String CATEGORY = "Pepse";
+    private static final String WORLD = "World";
+
+    /**
+     * Not meant to be instantiated.
+     */
+    private WorldEvents() {
+    }
+
+    /**
+     * The terrain heights and tree columns of a chunk were computed, usually on a generator thread.
+     */
+    @Name("pepse.ChunkGenerated")
+    @Label("Chunk Generated")
+    @Category({CATEGORY, WORLD})
+    @Description("The terrain and the tree columns of a chunk were computed")
+    public static class ChunkGenerated extends Event {
+        /** The index of the chunk. */
+        @Label("Chunk Index")
+        public int chunkIndex;
+        /** The number of trees the chunk will have. */
+        @Label("Trees")
+        public int treeCount;
+    }
+
+    /**
+     * A worker thread failed to compute the data of a chunk. The chunk is requested again when needed.
+     */
+    @Name("pepse.ChunkGenerationFailed")
+    @Label("Chunk Generation Failed")
+    @Category({CATEGORY, WORLD})
+    @Description("A worker thread failed to compute the data of a chunk")
+    public static class ChunkGenerationFailed extends Event {
+        /** The index of the chunk. */
+        @Label("Chunk Index")
+        public int chunkIndex;
+        /** The exception the generator threw. */
+        @Label("Error")
+        public String error;
+    }
+
+    /**
+     * The game objects of one column of a chunk were created: its terrain and its tree, if it has one.
+     */
+    @Name("pepse.ColumnBuilt")
+    @Label("Column Built")
+    @Category({CATEGORY, WORLD})
+    @Description("The terrain and tree objects of a chunk column were created")
+    public static class ColumnBuilt extends Event {
+        /** The index of the chunk. */
+        @Label("Chunk Index")
+        public int chunkIndex;
+        /** The column inside the chunk. */
+        @Label("Column")
+        public int column;
+        /** The number of game objects created. */
+        @Label("Objects Created")
+        public int objectsCreated;
+        /** Whether a tree was planted in the column. */
+        @Label("Tree Planted")
+        public boolean treePlanted;
+    }
+
+    /**
+     * A chunk was dropped from the chunk cache and its objects were recycled.
+     */
+    @Name("pepse.ChunkEvicted")
+    @Label("Chunk Evicted")
+    @Category({CATEGORY, WORLD})
+    @Description("A chunk was dropped from the chunk cache and its objects were recycled")
+    public static class ChunkEvicted extends Event {
+        /** The index of the chunk. */
+        @Label("Chunk Index")
+        public int chunkIndex;
+        /** The number of game objects removed. */
+        @Label("Objects Removed")
+        public int objectsRemoved;
+    }
+
+    /**
+     * The cloud started rain drops.
+     */
+    @Name("pepse.RainSpawned")
+    @Label("Rain Spawned")
+    @Category({CATEGORY, WORLD})
+    @Description("The cloud started rain drops")
+    public static class RainSpawned extends Event {
+        /** The number of drops started. */
+        @Label("Drops Spawned")
+        public int dropsSpawned;
+        /** The number of drops falling after the spawn. */
+        @Label("Live Drops")
+        public int liveDrops;
+    }
+
+    /**
+     * The avatar ate a fruit.
+     */
+    @Name("pepse.FruitEaten")
+    @Label("Fruit Eaten")
+    @Category({CATEGORY, WORLD})
+    @Description("The avatar ate a fruit")
+    public static class FruitEaten extends Event {
+        /** The index of the fruit's chunk. */
+        @Label("Chunk Index")
+        public int chunkIndex;
+        /** The slot of the fruit in its chunk. */
+        @Label("Slot")
+        public int slot;
+        /** The number of fruits eaten and not yet regrown, this one included. */
+        @Label("Eaten Fruits")
+        public int eatenCount;
+    }
+}
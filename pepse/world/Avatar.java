@@ -2,12 +2,12 @@ package pepse.world;
 
 import danogl.GameObject;
 import danogl.collisions.Collision;
-import danogl.gui.ImageReader;
 import danogl.gui.UserInputListener;
 import danogl.gui.rendering.AnimationRenderable;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 import pepse.AvatarJumpedObserver;
+import pepse.util.AssetCache;
 
 import java.awt.event.KeyEvent;
 
@@ -28,6 +28,7 @@ public class Avatar extends GameObject {
     private static final float WALKING_ENERGY = 0.5f;
     private static final float JUMPING_ENERGY = 10f;
     private static final float IDLE_ENERGY = 1f;
+    private static final float STEP_TOLERANCE = 1f;
     private float curEnergy;
     private static Renderable idleAnimation;
     private static Renderable runAnimation;
@@ -35,20 +36,22 @@ public class Avatar extends GameObject {
     private String curDirection = RIGHT;
     private AvatarJumpedObserver jumpedObserver;
     private final UserInputListener inputListener;
-    private final ImageReader imageReader;
+    private final AssetCache assets;
+    private SurfaceHeight surfaceHeightCallback;
+    private boolean onGround;
 
     /**
      * Construct a new GameObject instance.
      * @param topLeftCorner Position of the object, in window coordinates (pixels).
      *                      Note that (0,0) is the top-left corner of the window.
      * @param inputListener
-     * @param imageReader
+     * @param assets The preloaded images of the game.
      */
-    public Avatar(Vector2 topLeftCorner, UserInputListener inputListener, ImageReader imageReader) {
+    public Avatar(Vector2 topLeftCorner, UserInputListener inputListener, AssetCache assets) {
         super(topLeftCorner, Vector2.of(Constants.AVATAR_WIDTH, Constants.AVATAR_HEIGHT),
-                imageReader.readImage(Constants.IDLE_0_PATH, true));
+                assets.getImage(Constants.IDLE_0_PATH, true));
         this.inputListener = inputListener;
-        this.imageReader = imageReader;
+        this.assets = assets;
         this.curEnergy = MAX_ENERGY;
         physics().preventIntersectionsFromDirection(Vector2.ZERO);
         transform().setAccelerationY(Constants.GRAVITY);
@@ -59,6 +62,16 @@ public class Avatar extends GameObject {
         setTag(Constants.AVATAR_TAG);
     }
 
+    /**
+     * Makes the avatar stand on the terrain by reading its height directly, instead of colliding with
+     * ground blocks. Each frame costs the same whatever the terrain's depth, and the avatar cannot snag on
+     * the seams between blocks. Ground blocks are ignored by the avatar's collisions from now on.
+     * @param surfaceHeightCallback Returns the y-coordinate of the top of the terrain at a given x.
+     */
+    public void useGroundHeight(SurfaceHeight surfaceHeightCallback) {
+        this.surfaceHeightCallback = surfaceHeightCallback;
+    }
+
     /**
      * Creates the walking animation for the avatar.
      * @return A Renderable object containing the walking animation frames.
@@ -68,7 +81,7 @@ public class Avatar extends GameObject {
                 Constants.RUN_3_PATH, Constants.RUN_4_PATH, Constants.RUN_5_PATH};
         Renderable[] renderables = new Renderable[clipPaths.length];
         for (int i = 0; i < renderables.length; i++) {
-            renderables[i] = imageReader.readImage(clipPaths[i], true);
+            renderables[i] = assets.getImage(clipPaths[i], true);
         }
         return new AnimationRenderable(renderables, 0.5);
     }
@@ -82,7 +95,7 @@ public class Avatar extends GameObject {
                 {Constants.IDLE_0_PATH, Constants.IDLE_1_PATH, Constants.IDLE_2_PATH, Constants.IDLE_3_PATH};
         Renderable[] clipImages = new Renderable[clipPaths.length];
         for (int i = 0; i < clipImages.length; i++) {
-            clipImages[i] = imageReader.readImage(clipPaths[i], true);
+            clipImages[i] = assets.getImage(clipPaths[i], true);
         }
         return new AnimationRenderable(clipImages, 0.5);
     }
@@ -131,7 +144,7 @@ public class Avatar extends GameObject {
                 Constants.JUMP_2_PATH, Constants.JUMP_3_PATH};
         Renderable[] renderables = new Renderable[clipPaths.length];
         for (int i = 0; i < renderables.length; i++) {
-            renderables[i] = imageReader.readImage(clipPaths[i], true);
+            renderables[i] = assets.getImage(clipPaths[i], true);
         }
         return new AnimationRenderable(renderables, 0.5);
     }
@@ -166,7 +179,12 @@ public class Avatar extends GameObject {
      */
     @Override
     public void update(float deltaTime) {
+        float previousX = getTopLeftCorner().x();
+        float previousBottom = getTopLeftCorner().y() + getDimensions().y();
         super.update(deltaTime);
+        if (surfaceHeightCallback != null) {
+            resolveGroundContact(previousX, previousBottom);
+        }
 
         // Reset horizontal velocity to zero
         transform().setVelocityX(0);
@@ -191,7 +209,44 @@ public class Avatar extends GameObject {
             updateEnergy(IDLE_ENERGY);
         }
 //        System.out.println(curEnergy); // for debug
-        EnergyDisplay.update();
+    }
+
+    /**
+     * Resolves the avatar's contact with the terrain from the terrain's height, as the ground blocks would.
+     * Walking into a column higher than the avatar's feet is undone, and falling below the surface puts the
+     * avatar back on top of it and stops its fall.
+     * @param previousX The x-coordinate of the avatar's top-left corner before this frame's movement.
+     * @param previousBottom The y-coordinate of the avatar's feet before this frame's movement.
+     */
+    private void resolveGroundContact(float previousX, float previousBottom) {
+        float x = getTopLeftCorner().x();
+        if (x != previousX && supportHeight(x) < previousBottom - STEP_TOLERANCE) {
+            x = previousX;
+        }
+        float ground = supportHeight(x);
+        float top = getTopLeftCorner().y();
+        boolean landed = getVelocity().y() >= 0 && top + getDimensions().y() >= ground;
+        if (landed) {
+            if (!onGround) {
+                renderer().setRenderable(idleAnimation);
+            }
+            top = ground - getDimensions().y();
+            transform().setVelocityY(0);
+        }
+        onGround = landed;
+        if (x != getTopLeftCorner().x() || top != getTopLeftCorner().y()) {
+            setTopLeftCorner(new Vector2(x, top));
+        }
+    }
+
+    /**
+     * Returns the highest terrain surface under the avatar when its left edge is at the given x.
+     * @param x The x-coordinate of the avatar's left edge.
+     * @return The y-coordinate of the surface the avatar would stand on.
+     */
+    private float supportHeight(float x) {
+        float right = x + getDimensions().x() - STEP_TOLERANCE;
+        return Math.min(surfaceHeightCallback.heightAt(x), surfaceHeightCallback.heightAt(right));
     }
 
     /**
@@ -202,6 +257,14 @@ public class Avatar extends GameObject {
         return this.curEnergy;
     }
 
+    /**
+     * Returns the current energy of the avatar without boxing it, for callers reading it every frame.
+     * @return The current energy.
+     */
+    public float getEnergy() {
+        return this.curEnergy;
+    }
+
     /**
      * Determines if the avatar should collide with the specified object.
      * @param other The other GameObject to check collision against.
@@ -210,6 +273,9 @@ public class Avatar extends GameObject {
     @Override
     public boolean shouldCollideWith(GameObject other) {
         String tag = other.getTag();
+        if (tag.equals(Constants.GROUND_TAG) && surfaceHeightCallback != null) {
+            return false;
+        }
         if (tag.equals(Constants.GROUND_TAG) || tag.equals(Constants.TREE_TRUNK_TAG) ||
                 tag.equals(Constants.FRUIT_TAG)){
             return true;
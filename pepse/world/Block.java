@@ -32,4 +32,14 @@ public class Block extends GameObject {
     public boolean shouldCollideWith(GameObject other) {
         return (other.getTag().equals(Constants.AVATAR_TAG));
     }
+
+    /**
+     * Resets a pooled block so it can be placed again.
+     * @param topLeftCorner The new position of the block in window coordinates (pixels).
+     * @param renderable The new renderable of the block.
+     */
+    public void reset(Vector2 topLeftCorner, Renderable renderable) {
+        setTopLeftCorner(topLeftCorner);
+        renderer().setRenderable(renderable);
+    }
 }
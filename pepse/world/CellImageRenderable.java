@@ -0,0 +1,55 @@
+package pepse.world;
+
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * A renderable that draws an image holding one pixel per ground cell, scaled up to the cells' real size
+ * without smoothing. A whole chunk of ground is drawn this way with a single image draw.
+ * @author: Batia
+ * @see pepse.world.Terrain
+ */
+public class CellImageRenderable implements Renderable {
+    private final BufferedImage cells;
+
+    /**
+     * Constructs a new CellImageRenderable.
+     * @param cells An image with one pixel per cell, transparent where there is no cell.
+     */
+    public CellImageRenderable(BufferedImage cells) {
+        this.cells = cells;
+    }
+
+    /**
+     * Draws the cell image, scaled to the given rectangle with nearest-neighbor interpolation so every
+     * cell keeps its sharp edges and exact color.
+     * @param g The graphics context to draw with.
+     * @param topLeftCorner The top-left corner of the image on screen.
+     * @param dimensions The dimensions of the image on screen.
+     * @param degreesCounterClockwise Ignored, ground is never rotated.
+     * @param isFlippedHorizontally Ignored, ground is never flipped.
+     * @param isFlippedVertically Ignored, ground is never flipped.
+     * @param opaqueness The opaqueness to draw the image with.
+     */
+    @Override
+    public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                       double degreesCounterClockwise, boolean isFlippedHorizontally,
+                       boolean isFlippedVertically, double opaqueness) {
+        Composite oldComposite = g.getComposite();
+        Object oldInterpolation = g.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+        if (opaqueness < 1) {
+            g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) opaqueness));
+        }
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        g.drawImage(cells, Math.round(topLeftCorner.x()), Math.round(topLeftCorner.y()),
+                Math.round(dimensions.x()), Math.round(dimensions.y()), null);
+        if (oldInterpolation != null) {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, oldInterpolation);
+        }
+        g.setComposite(oldComposite);
+    }
+}
@@ -0,0 +1,40 @@
+package pepse.world;
+
+import pepse.world.chunks.Chunk;
+import pepse.world.trees.Flora;
+
+/**
+ * Frees the chunks that leave the world for good: their ground objects go back to the terrain's pools,
+ * every other object to the flora's pools, and the terrain and flora forget the chunk's heights and trees.
+ * @author: Batia
+ */
+public class ChunkRecycler {
+    private final Terrain terrain;
+    private final Flora flora;
+
+    /**
+     * Constructs a new ChunkRecycler.
+     * @param terrain The terrain that built the ground of the chunks.
+     * @param flora The flora that planted the trees of the chunks.
+     */
+    public ChunkRecycler(Terrain terrain, Flora flora) {
+        this.terrain = terrain;
+        this.flora = flora;
+    }
+
+    /**
+     * Recycles every object of a discarded chunk and forgets its height map and trees.
+     * @param chunk The discarded chunk.
+     */
+    public void recycle(Chunk chunk) {
+        chunk.forEach((go, layer) -> {
+            if (go.getTag().equals(Constants.GROUND_TAG)) {
+                terrain.recycle(go);
+            } else {
+                flora.recycle(go);
+            }
+        });
+        terrain.releaseHeights(chunk.getIndex());
+        flora.releaseChunk(chunk.getIndex());
+    }
+}
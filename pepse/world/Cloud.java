@@ -2,20 +2,21 @@ package pepse.world;
 
 import danogl.GameObject;
 import danogl.components.CoordinateSpace;
-import danogl.components.ScheduledTask;
 import danogl.components.Transition;
-import danogl.gui.ImageReader;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 import pepse.AvatarJumpedObserver;
+import pepse.util.AssetCache;
+import pepse.util.WorldEvents;
 import java.awt.*;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Consumer;
 
 /**
- * Represents a cloud in the game world that can create rain upon avatar interaction.
+ * Represents a cloud in the game world that can create rain upon avatar interaction. The rain is a single
+ * particle system with a fixed number of drops.
+ * @see pepse.world.RainParticles
  * @author: Batia
  * @see AvatarJumpedObserver
  */
@@ -26,6 +27,8 @@ public class Cloud implements AvatarJumpedObserver {
     private static final int CLOUD_WIDTH = 180;
     private static final int MAX_RAIN = 4;
     private static final int MIN_RAIN = 1;
+    private static final int MAX_RAIN_DROPS = 64;
+    private static final Vector2 DROP_DIMENSIONS = Vector2.of(50, 30);
     private static Vector2 windowDimensions;
     private final List<List<Integer>> cloudList = List.of((
                     List.of(0, 1, 1, 0, 0, 0)),
@@ -37,23 +40,18 @@ public class Cloud implements AvatarJumpedObserver {
     private static final Vector2 cloudStartPosition = new Vector2(-180, 100);
     private GameObject cloudObject;
     private Consumer<GameObject> addRainCallback;
-    private Consumer<GameObject> removeRainCallback;
-    private ImageReader imageReader;
-    private HashSet<GameObject> rainDrops;
+    private AssetCache assets;
+    private RainParticles rain;
 
 
     /**
      * Constructs a new Cloud instance.
-     * @param addRainCallback Callback function to add rain drops to the game.
-     * @param removeRainCallback Callback function to remove rain drops from the game.
-     * @param imageReader Utility for reading image files.
+     * @param addRainCallback Callback function to add the rain particle system to the game.
+     * @param assets The preloaded images of the game.
      */
-    public Cloud(Consumer<GameObject> addRainCallback, Consumer<GameObject> removeRainCallback,
-                 ImageReader imageReader) {
+    public Cloud(Consumer<GameObject> addRainCallback, AssetCache assets) {
         this.addRainCallback = addRainCallback;
-        this.removeRainCallback = removeRainCallback;
-        this.imageReader = imageReader;
-        this.rainDrops = new HashSet<>();
+        this.assets = assets;
     }
 
     /**
@@ -64,13 +62,16 @@ public class Cloud implements AvatarJumpedObserver {
      */
     public GameObject createCloud(Vector2 windowDimensions, Cloud cloudInstance) {
         Cloud.windowDimensions = windowDimensions;
-        Renderable readableCloud = this.imageReader.readImage("assets/cloud.png", false);
+        Renderable readableCloud = assets.getImage(Constants.CLOUD_PATH, false);
         GameObject cloud = new GameObject(Vector2.of(0, 90), Vector2.of(CLOUD_WIDTH, CLOUD_HEIGHT),
                 readableCloud);
         setCloudMovement(cloud);
         cloud.setTag(Constants.CLOUD_TAG);
         cloud.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
         cloudInstance.cloudObject = cloud;
+        rain = new RainParticles(windowDimensions, assets.getImage(Constants.RAIN_DROP_PATH, true),
+                DROP_DIMENSIONS, MAX_RAIN_DROPS);
+        addRainCallback.accept(rain);
         return cloud;
     }
 
@@ -94,6 +95,14 @@ public class Cloud implements AvatarJumpedObserver {
 //    }
 
 
+    /**
+     * Returns the rain of the cloud.
+     * @return The rain particle system, or null before the cloud is created.
+     */
+    public RainParticles getRain() {
+        return rain;
+    }
+
     /**
      * Defines the movement of the cloud using a looping transition.
      * @param newCloud The cloud GameObject to move.
@@ -126,68 +135,30 @@ public class Cloud implements AvatarJumpedObserver {
     }
 
     /**
-     * Generates rain drops and adds them to the game.
+     * Starts a few rain drops under the cloud. They fall and fade out on their own.
      */
     private void goRain() {
-        Renderable rainRenderable = imageReader.readImage("assets/tripleDrop.png", true);
+        WorldEvents.RainSpawned event = new WorldEvents.RainSpawned();
+        event.begin();
         int numOfDrops = howManyDrops();
+        int spawned = 0;
         for (int i = 0; i < numOfDrops; i++) {
             Vector2 rainCenter = Vector2.of(cloudObject.getCenter().x() + i*30,
                     (cloudObject.getCenter().y() + 20 * i) + CLOUD_HEIGHT / 2f);
-            Vector2 topLeft = cloudObject.getTopLeftCorner().add(Vector2.RIGHT.mult(10));
-            GameObject curRainObject = new GameObject(topLeft, Vector2.of(50, 30), rainRenderable);
-            curRainObject.setCenter(rainCenter);
-            curRainObject.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
-            curRainObject.transform().setAccelerationY(Constants.GRAVITY);
-            this.rainDrops.add(curRainObject);
-            this.addRainCallback.accept(curRainObject);
-//            moveAndFadeRain();
-//            this.addRainCallback.accept(curRainObject);
-        }
-//        addRain();
-    }
-
-    /**
-     * Determines the number of rain drops to generate.
-     * @return The number of rain drops.
-     */
-        void addRain(){
-            for (GameObject d : rainDrops){
-                moveAndFadeRain(d);
-                this.addRainCallback.accept(d);
+            if (rain.spawn(rainCenter)) {
+                spawned++;
             }
         }
-//
+        event.dropsSpawned = spawned;
+        event.liveDrops = rain.getLiveCount();
+        event.commit();
+    }
 
     /**
      * Determines the number of rain drops to generate.
      * @return The number of rain drops.
      */
     private int howManyDrops() {
-        int numDrops = new Random().nextInt(MIN_RAIN, MAX_RAIN);
-        System.out.println(numDrops);
-        return numDrops;
-    }
-
-    /**
-     * Fades out and removes rain drops from the game.
-     * @param curRainObject The rain GameObject to move and fade.
-     */
-    private void moveAndFadeRain(GameObject curRainObject) {
-//        new Transition<Float>(curRainObject,
-//                (Float toMove) -> curRainObject.getTopLeftCorner().add(Vector2.DOWN.mult(toMove)),
-//                0f, windowDimensions.y(), Transition.LINEAR_INTERPOLATOR_FLOAT, 30,
-//                Transition.TransitionType.TRANSITION_ONCE, null);
-        curRainObject.renderer().fadeOut(2f);
-        new ScheduledTask(curRainObject,30, false, this::removeRain);
-    }
-
-    /**
-     * Removes rain drops from the game.
-     */
-    private void removeRain() {
-        for (GameObject d : rainDrops){
-            removeRainCallback.accept(d);
-        }
+        return ThreadLocalRandom.current().nextInt(MIN_RAIN, MAX_RAIN);
     }
 }
@@ -0,0 +1,54 @@
+package pepse.world;
+
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.awt.*;
+
+/**
+ * A renderable that draws a vertical stack of equally sized cells, each in its own color.
+ * Lets a single GameObject look exactly like a column of separately colored blocks.
+ * @author: Batia
+ * @see pepse.world.GroundColumn
+ */
+public class ColumnRenderable implements Renderable {
+    private final Color[] cellColors;
+
+    /**
+     * Constructs a new ColumnRenderable.
+     * @param cellColors The colors of the cells, from the top cell to the bottom cell.
+     */
+    public ColumnRenderable(Color[] cellColors) {
+        this.cellColors = cellColors;
+    }
+
+    /**
+     * Draws every cell of the column, top to bottom, inside the given rectangle.
+     * @param g The graphics context to draw with.
+     * @param topLeftCorner The top-left corner of the column on screen.
+     * @param dimensions The dimensions of the whole column on screen.
+     * @param degreesCounterClockwise Ignored, ground columns are never rotated.
+     * @param isFlippedHorizontally Ignored, the cells are symmetric.
+     * @param isFlippedVertically Ignored, ground columns are never flipped.
+     * @param opaqueness The opaqueness to draw the column with.
+     */
+    @Override
+    public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                       double degreesCounterClockwise, boolean isFlippedHorizontally,
+                       boolean isFlippedVertically, double opaqueness) {
+        Composite oldComposite = g.getComposite();
+        if (opaqueness < 1) {
+            g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) opaqueness));
+        }
+        float cellHeight = dimensions.y() / cellColors.length;
+        int x = Math.round(topLeftCorner.x());
+        int width = Math.round(dimensions.x());
+        for (int i = 0; i < cellColors.length; i++) {
+            int top = Math.round(topLeftCorner.y() + i * cellHeight);
+            int bottom = Math.round(topLeftCorner.y() + (i + 1) * cellHeight);
+            g.setColor(cellColors[i]);
+            g.fillRect(x, top, width, bottom - top);
+        }
+        g.setComposite(oldComposite);
+    }
+}
@@ -35,6 +35,12 @@ public class Constants {
     public static final String RUN_4_PATH = "assets/run_4.png";
     /** Path to the sixth run animation frame. */
     public static final String RUN_5_PATH = "assets/run_5.png";
+    /** Path to the cloud image. */
+    public static final String CLOUD_PATH = "assets/cloud.png";
+    /** Path to the rain drop image. */
+    public static final String RAIN_DROP_PATH = "assets/tripleDrop.png";
+    /** Path to the ribbon drawn on the sun. */
+    public static final String RIBBON_PATH = "assets/yellow.png";
     /** Tag representing the sky object. */
     public static final String SKY_TAG = "sky";
     /** Tag representing the energy display object. */
@@ -43,6 +49,8 @@ public class Constants {
     public static final String GROUND_TAG = "ground";
     /** Size of a block in pixels. */
     public static final int BLOCK_SIZE = 30;
+    /** Width of a streamed world chunk in pixels, a multiple of the block size. */
+    public static final int CHUNK_WIDTH = 16 * BLOCK_SIZE;
     /** Height of a tree trunk in pixels. */
     public static final float TREE_TRUNK_HEIGHT = 180f;
     /** Size of a tree top in pixels. */
@@ -61,6 +69,8 @@ public class Constants {
     public static final String TREE_TRUNK_TAG = "trunk";
     /** Tag representing the leaf object. */
     public static final String LEAF_TAG = "leaf";
+    /** Tag representing the baked tree top drawn for distant trees. */
+    public static final String CANOPY_TAG = "canopy";
     /** Bound for determining portability. */
     public static final int PORTABILITY_BOUND = 11;
     /** Represents half as a floating-point number. */
@@ -4,19 +4,25 @@ import danogl.GameObject;
 import danogl.components.CoordinateSpace;
 import danogl.gui.rendering.TextRenderable;
 import danogl.util.Vector2;
-import java.util.function.Supplier;
+import java.util.function.DoubleSupplier;
 
 /**
  * A utility class for creating and managing an energy display for the avatar.
- * The energy display shows the current energy level as a percentage and updates dynamically.
+ * The energy display shows the current energy level as a whole percentage and updates dynamically. The
+ * text is changed only when the shown percentage changes, and the text of every percentage is built once
+ * and reused, so frames where the energy stays the same build no strings and no renderables.
  * @author: Batia
  */
 public class EnergyDisplay{
     private static final int DISPLAY_SIZE = 30;
-    private static final String FULL_ENERGY_START = "100%";
+    private static final int FULL_ENERGY = 100;
+    private static final int MAX_CACHED_PERCENT = 127;
+    private static final int NOT_SHOWN = -1;
     private static final String PERCENT = "%";
-    private static Supplier<Float> energyCallback; // The callback to get the avatar's energy
+    private static final TextRenderable[] PERCENT_RENDERABLES = new TextRenderable[MAX_CACHED_PERCENT + 1];
+    private static DoubleSupplier energyCallback; // The callback to get the avatar's energy
     private static GameObject theEnergyDisplay;
+    private static int shownPercent = NOT_SHOWN;
 
     /**
      * Creates a GameObject representing the energy display.
@@ -24,22 +30,43 @@ public class EnergyDisplay{
      * @param energyCallback A callback function that provides the current energy level of the avatar.
      * @return A GameObject representing the energy display.
      */
-    public static GameObject create(Supplier<Float> energyCallback){
+    public static GameObject create(DoubleSupplier energyCallback){
         EnergyDisplay.energyCallback = energyCallback;
-        TextRenderable textRenderable = new TextRenderable(FULL_ENERGY_START);
-        theEnergyDisplay = new GameObject(Vector2.ZERO, Vector2.ONES.mult(DISPLAY_SIZE), textRenderable);
+        theEnergyDisplay = new GameObject(Vector2.ZERO, Vector2.ONES.mult(DISPLAY_SIZE),
+                renderableOf(FULL_ENERGY));
         theEnergyDisplay.setTag(Constants.ENERGY_DISPLAY_TAG);
         theEnergyDisplay.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        shownPercent = FULL_ENERGY;
         return theEnergyDisplay;
     }
 
     /**
      * Updates the energy display to reflect the current energy level.
-     * The displayed value is retrieved from the provided energy callback function.
+     * The displayed value is retrieved from the provided energy callback function, rounded to a whole
+     * percentage. Nothing is changed if that percentage is already shown.
      */
     public static void update(){
-        TextRenderable curEnergyRend = new TextRenderable(energyCallback.get().toString() + PERCENT);
-        theEnergyDisplay.renderer().setRenderable(curEnergyRend);
+        int percent = (int) Math.round(energyCallback.getAsDouble());
+        if (percent == shownPercent) {
+            return;
+        }
+        shownPercent = percent;
+        theEnergyDisplay.renderer().setRenderable(renderableOf(percent));
+    }
+
+    /**
+     * Returns the text renderable of a percentage, building it the first time it is needed.
+     * @param percent The percentage to show.
+     * @return The renderable showing it.
+     */
+    private static TextRenderable renderableOf(int percent) {
+        if (percent < 0 || percent > MAX_CACHED_PERCENT) {
+            return new TextRenderable(percent + PERCENT);
+        }
+        if (PERCENT_RENDERABLES[percent] == null) {
+            PERCENT_RENDERABLES[percent] = new TextRenderable(percent + PERCENT);
+        }
+        return PERCENT_RENDERABLES[percent];
     }
 
 }
@@ -0,0 +1,43 @@
+package pepse.world;
+
+import danogl.GameObject;
+
+/**
+ * Represents a single terrain column built from two objects instead of one Block per cell:
+ * a collidable surface Block on top, and a non-colliding fill that draws the rest of the column.
+ * @author: Batia
+ * @see pepse.world.Terrain
+ * @see pepse.world.Block
+ */
+public class GroundColumn {
+    private final Block surface;
+    private final GameObject fill;
+
+// GETTERS //
+    /**
+     * Returns the collidable top block of the column.
+     * @return The surface Block.
+     */
+    public Block getSurface() {
+        return surface;
+    }
+
+    /**
+     * Returns the non-colliding object that draws the cells below the surface.
+     * @return The fill GameObject, or null if the column is a single block tall.
+     */
+    public GameObject getFill() {
+        return fill;
+    }
+
+// CONSTRUCTOR
+    /**
+     * Constructs a GroundColumn.
+     * @param surface The collidable top block of the column.
+     * @param fill The object drawing the cells below the surface, or null if there are none.
+     */
+    public GroundColumn(Block surface, GameObject fill) {
+        this.surface = surface;
+        this.fill = fill;
+    }
+}
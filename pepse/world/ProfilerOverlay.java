@@ -0,0 +1,189 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.components.CoordinateSpace;
+import danogl.gui.UserInputListener;
+import danogl.util.Vector2;
+import pepse.util.FrameProfiler;
+import pepse.util.ObjectPool;
+
+import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Shows the measurements of a FrameProfiler on screen: percentiles of the frame time, the average time of
+ * every section, the number of game objects of every tag, and the free size and reuse rate of every added
+ * object pool. Pressing the toggle key shows or hides it.
+ * The text is rebuilt only a few times a second and only while shown; the profiler itself never
+ * allocates, so the overlay does not change the numbers it reports.
+ * @author: Batia
+ * @see pepse.util.FrameProfiler
+ */
+public class ProfilerOverlay extends GameObject {
+    private static final int TOGGLE_KEY = KeyEvent.VK_F3;
+    private static final float REFRESH_TIME = 0.25f;
+    private static final int LINE_HEIGHT = 16;
+    private static final int MARGIN = 8;
+    private static final int OVERLAY_WIDTH = 320;
+    private static final Vector2 OVERLAY_POSITION = Vector2.of(10, 40);
+    private static final Color BACKGROUND_COLOR = new Color(0, 0, 0, 160);
+    private static final Color TEXT_COLOR = Color.WHITE;
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final String[] COUNTED_TAGS = {Constants.GROUND_TAG, Constants.LEAF_TAG,
+            Constants.FRUIT_TAG, Constants.TREE_TRUNK_TAG, Constants.CANOPY_TAG, Constants.CLOUD_TAG,
+            Constants.AVATAR_TAG};
+    private static final String OTHER_TAGS = "other";
+    private static final int PERCENTILE_LINES = 1;
+    private final FrameProfiler profiler;
+    private final UserInputListener inputListener;
+    private final Iterable<GameObject> gameObjects;
+    private final int[] tagCounts;
+    private final List<String> poolNames;
+    private final List<ObjectPool<?>> pools;
+    private String[] lines;
+    private boolean visible;
+    private boolean keyWasPressed;
+    private float sinceRefresh;
+
+    /**
+     * Constructs a hidden ProfilerOverlay in the top-left corner of the window.
+     * @param profiler The profiler to show.
+     * @param inputListener Used to read the toggle key.
+     * @param gameObjects The objects of the game, counted by tag.
+     */
+    public ProfilerOverlay(FrameProfiler profiler, UserInputListener inputListener,
+                           Iterable<GameObject> gameObjects) {
+        super(OVERLAY_POSITION, Vector2.ZERO, null);
+        this.profiler = profiler;
+        this.inputListener = inputListener;
+        this.gameObjects = gameObjects;
+        this.tagCounts = new int[COUNTED_TAGS.length + 1];
+        this.poolNames = new ArrayList<>();
+        this.pools = new ArrayList<>();
+        resizeLines();
+        setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        renderer().setRenderable(this::renderLines);
+    }
+
+    /**
+     * Adds a line showing the free size and reuse rate of an object pool.
+     * @param name The name shown for the pool.
+     * @param pool The pool.
+     */
+    public void addPool(String name, ObjectPool<?> pool) {
+        poolNames.add(name);
+        pools.add(pool);
+        resizeLines();
+    }
+
+    /**
+     * The overlay touches nothing.
+     * @param other The other GameObject.
+     * @return Always false.
+     */
+    @Override
+    public boolean shouldCollideWith(GameObject other) {
+        return false;
+    }
+
+    /**
+     * Toggles the overlay when the toggle key goes down, and refreshes its text while it is shown.
+     * @param deltaTime The time elapsed, in seconds, since the last frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        boolean keyPressed = inputListener.isKeyPressed(TOGGLE_KEY);
+        if (keyPressed && !keyWasPressed) {
+            visible = !visible;
+            sinceRefresh = REFRESH_TIME;
+        }
+        keyWasPressed = keyPressed;
+        if (!visible) {
+            return;
+        }
+        sinceRefresh += deltaTime;
+        if (sinceRefresh >= REFRESH_TIME) {
+            sinceRefresh = 0;
+            refresh();
+        }
+    }
+
+    /**
+     * Rebuilds the lines of text from the profiler and a fresh count of the game objects.
+     */
+    private void refresh() {
+        lines[0] = String.format("frame p50 %.2f  p95 %.2f  p99 %.2f ms", profiler.getFramePercentile(50),
+                profiler.getFramePercentile(95), profiler.getFramePercentile(99));
+        for (int i = 0; i < FrameProfiler.SECTION_COUNT; i++) {
+            lines[PERCENTILE_LINES + i] = String.format("%-9s %7.3f ms", FrameProfiler.nameOf(i),
+                    profiler.getAverageMillis(i));
+        }
+        countTags();
+        int first = PERCENTILE_LINES + FrameProfiler.SECTION_COUNT;
+        for (int i = 0; i < COUNTED_TAGS.length; i++) {
+            lines[first + i] = String.format("%-9s %7d", COUNTED_TAGS[i], tagCounts[i]);
+        }
+        lines[first + COUNTED_TAGS.length] = String.format("%-9s %7d", OTHER_TAGS,
+                tagCounts[COUNTED_TAGS.length]);
+        first += tagCounts.length;
+        for (int i = 0; i < pools.size(); i++) {
+            ObjectPool<?> pool = pools.get(i);
+            lines[first + i] = String.format("%-9s free %5d  reuse %5.1f%%", poolNames.get(i),
+                    pool.getFreeCount(), pool.getReuseRate() * 100);
+        }
+    }
+
+    /**
+     * Makes room for a line per percentile line, section, tag and pool, and sizes the overlay to fit them.
+     */
+    private void resizeLines() {
+        lines = new String[PERCENTILE_LINES + FrameProfiler.SECTION_COUNT + tagCounts.length + pools.size()];
+        setDimensions(Vector2.of(OVERLAY_WIDTH, LINE_HEIGHT * (lines.length + 1) + MARGIN));
+    }
+
+    /**
+     * Counts the game objects of every counted tag. Objects with any other tag are counted as other.
+     */
+    private void countTags() {
+        Arrays.fill(tagCounts, 0);
+        for (GameObject gameObject : gameObjects) {
+            String tag = gameObject.getTag();
+            int index = 0;
+            while (index < COUNTED_TAGS.length && !COUNTED_TAGS[index].equals(tag)) {
+                index++;
+            }
+            tagCounts[index]++;
+        }
+    }
+
+    /**
+     * Draws the lines of text over a translucent background, or nothing while the overlay is hidden.
+     * @param g The graphics context to draw with.
+     * @param topLeftCorner The top-left corner of the overlay on screen.
+     * @param dimensions The size of the overlay.
+     * @param degreesCounterClockwise Ignored, the overlay is never rotated.
+     * @param isFlippedHorizontally Ignored, the overlay is never flipped.
+     * @param isFlippedVertically Ignored, the overlay is never flipped.
+     * @param opaqueness Ignored, the overlay is always readable.
+     */
+    private void renderLines(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                             double degreesCounterClockwise, boolean isFlippedHorizontally,
+                             boolean isFlippedVertically, double opaqueness) {
+        if (!visible || lines[0] == null) {
+            return;
+        }
+        int left = Math.round(topLeftCorner.x());
+        int top = Math.round(topLeftCorner.y());
+        g.setColor(BACKGROUND_COLOR);
+        g.fillRect(left, top, Math.round(dimensions.x()), Math.round(dimensions.y()));
+        g.setColor(TEXT_COLOR);
+        g.setFont(FONT);
+        for (int i = 0; i < lines.length; i++) {
+            g.drawString(lines[i], left + MARGIN, top + MARGIN + LINE_HEIGHT * (i + 1));
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.components.CoordinateSpace;
+import danogl.gui.rendering.ImageRenderable;
+import danogl.util.Vector2;
+import pepse.util.FrameProfiler;
+
+import java.awt.*;
+
+/**
+ * A fixed-capacity particle system for rain drops. All drops live in parallel arrays inside a single
+ * GameObject that covers the window, fall under gravity, fade out over their lifetime and are drawn in one
+ * render pass. Slots of dead drops are reused by new ones, so any amount of rain costs the same memory.
+ * @author: Batia
+ * @see pepse.world.Cloud
+ */
+public class RainParticles extends GameObject {
+    private static final float DROP_LIFETIME = 2f;
+    private static final int OPACITY_LEVELS = 16;
+    private final Image dropImage;
+    private final int dropWidth;
+    private final int dropHeight;
+    private final float bottomY;
+    private final float[] x;
+    private final float[] y;
+    private final float[] velocityY;
+    private final float[] age;
+    private final int[] freeSlots;
+    private final int[] liveSlots;
+    private final AlphaComposite[] composites;
+    private FrameProfiler profiler;
+    private int freeCount;
+    private int liveCount;
+
+    /**
+     * Constructs a new RainParticles with no drops, covering the window in camera coordinates.
+     * @param windowDimensions The dimensions of the game window.
+     * @param dropRenderable The image every drop is drawn with.
+     * @param dropDimensions The size of a drop on screen.
+     * @param capacity The maximal number of drops alive at once.
+     */
+    public RainParticles(Vector2 windowDimensions, ImageRenderable dropRenderable, Vector2 dropDimensions,
+                         int capacity) {
+        super(Vector2.ZERO, windowDimensions, null);
+        this.dropImage = dropRenderable.getImage();
+        this.dropWidth = Math.round(dropDimensions.x());
+        this.dropHeight = Math.round(dropDimensions.y());
+        this.bottomY = windowDimensions.y();
+        this.x = new float[capacity];
+        this.y = new float[capacity];
+        this.velocityY = new float[capacity];
+        this.age = new float[capacity];
+        this.freeSlots = new int[capacity];
+        this.liveSlots = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            freeSlots[i] = capacity - 1 - i;
+        }
+        this.freeCount = capacity;
+        this.composites = new AlphaComposite[OPACITY_LEVELS + 1];
+        for (int i = 0; i <= OPACITY_LEVELS; i++) {
+            composites[i] = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) i / OPACITY_LEVELS);
+        }
+        setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        renderer().setRenderable(this::renderDrops);
+    }
+
+    /**
+     * Returns the number of drops currently falling.
+     * @return The number of live drops.
+     */
+    public int getLiveCount() {
+        return liveCount;
+    }
+
+    /**
+     * Measures the time spent moving the drops with the given profiler, from the next frame on.
+     * @param profiler The profiler, or null to stop measuring.
+     */
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Rain drops pass through everything.
+     * @param other The other GameObject.
+     * @return Always false.
+     */
+    @Override
+    public boolean shouldCollideWith(GameObject other) {
+        return false;
+    }
+
+    /**
+     * Starts a new drop, centered at the given point. Does nothing when every slot is taken.
+     * @param center The center of the new drop, in camera coordinates.
+     * @return True if the drop was started.
+     */
+    public boolean spawn(Vector2 center) {
+        if (freeCount == 0) {
+            return false;
+        }
+        int slot = freeSlots[--freeCount];
+        x[slot] = center.x() - dropWidth / Constants.HALF;
+        y[slot] = center.y() - dropHeight / Constants.HALF;
+        velocityY[slot] = 0;
+        age[slot] = 0;
+        liveSlots[liveCount++] = slot;
+        return true;
+    }
+
+    /**
+     * Moves every drop under gravity and ages it. Drops that outlived their lifetime or fell below the
+     * window give their slot back.
+     * @param deltaTime The time elapsed, in seconds, since the last frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        if (profiler != null) {
+            profiler.begin(FrameProfiler.RAIN);
+        }
+        for (int i = liveCount - 1; i >= 0; i--) {
+            int slot = liveSlots[i];
+            velocityY[slot] += Constants.GRAVITY * deltaTime;
+            y[slot] += velocityY[slot] * deltaTime;
+            age[slot] += deltaTime;
+            if (age[slot] >= DROP_LIFETIME || y[slot] > bottomY) {
+                liveSlots[i] = liveSlots[--liveCount];
+                freeSlots[freeCount++] = slot;
+            }
+        }
+        if (profiler != null) {
+            profiler.end(FrameProfiler.RAIN);
+        }
+    }
+
+    /**
+     * Draws every live drop, faded by its age.
+     * @param g The graphics context to draw with.
+     * @param topLeftCorner The top-left corner of the window on screen.
+     * @param dimensions Ignored, the drops have their own size.
+     * @param degreesCounterClockwise Ignored, drops are never rotated.
+     * @param isFlippedHorizontally Ignored, drops are never flipped.
+     * @param isFlippedVertically Ignored, drops are never flipped.
+     * @param opaqueness The opaqueness of the whole rain.
+     */
+    private void renderDrops(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                             double degreesCounterClockwise, boolean isFlippedHorizontally,
+                             boolean isFlippedVertically, double opaqueness) {
+        Composite oldComposite = g.getComposite();
+        for (int i = 0; i < liveCount; i++) {
+            int slot = liveSlots[i];
+            double alpha = (1 - age[slot] / DROP_LIFETIME) * opaqueness;
+            int level = (int) Math.max(0, Math.min(OPACITY_LEVELS, Math.round(alpha * OPACITY_LEVELS)));
+            g.setComposite(composites[level]);
+            g.drawImage(dropImage, Math.round(topLeftCorner.x() + x[slot]),
+                    Math.round(topLeftCorner.y() + y[slot]), dropWidth, dropHeight, null);
+        }
+        g.setComposite(oldComposite);
+    }
+}
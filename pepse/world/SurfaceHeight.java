@@ -0,0 +1,15 @@
+package pepse.world;
+
+/**
+ * This interface defines the height of the terrain's surface, read with primitive floats so frequent
+ * lookups do not box their argument or result.
+ * @author: Batia
+ */
+public interface SurfaceHeight {
+    /**
+     * Returns the y-coordinate of the top of the terrain at a given x.
+     * @param x The x-coordinate.
+     * @return The y-coordinate of the surface.
+     */
+    float heightAt(float x);
+}
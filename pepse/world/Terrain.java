@@ -1,13 +1,21 @@
 package pepse.world;
 
+import danogl.GameObject;
 import danogl.gui.rendering.RectangleRenderable;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 import pepse.util.ColorSupplier;
+import pepse.util.HashRandom;
 import pepse.util.NoiseGenerator;
+import pepse.util.ObjectPool;
+import pepse.util.RenderablePalette;
+import pepse.world.chunks.ChunkData;
 
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 
 /**
@@ -17,14 +25,25 @@ import java.util.List;
  */
 public class Terrain {
     private static final Color BASE_GROUND_COLOR = new Color(212, 123, 74);
+    private static final RenderablePalette GROUND_RENDERABLES =
+            new RenderablePalette(BASE_GROUND_COLOR, RectangleRenderable::new);
     private static final int BLOCK_SIZE = Constants.BLOCK_SIZE;
     private static final int TERRAIN_DEPTH = 20;
     private static final int NOISE_FACTOR = 7;
     private static final float BASIC_HEIGHT_PARAMETER = 2/3f;
+    private static final int MAX_POOLED_BLOCKS = 4096;
+    private static final int MAX_POOLED_FILLS = 512;
+    private static final int COLUMNS_PER_CHUNK = Constants.CHUNK_WIDTH / BLOCK_SIZE;
     private float windowX;
     private float windowY;
     private float groundHeightAtX0;
     private NoiseGenerator noiseGenerator;
+    private final int seed;
+    private final ObjectPool<Block> blockPool;
+    private final ObjectPool<GameObject> fillPool;
+    private final HashMap<Integer, float[]> chunkHeights;
+    private int lastChunkIndex;
+    private float[] lastChunkHeights;
 
     /**
      * Constructs a Terrain instance for managing ground generation.
@@ -35,21 +54,249 @@ public class Terrain {
         this.windowX = windowDimensions.x();
         this.windowY = windowDimensions.y();
         this.groundHeightAtX0 = windowY * BASIC_HEIGHT_PARAMETER;
+        this.seed = seed;
         this.noiseGenerator = new NoiseGenerator((double) seed, (int) groundHeightAtX0);
+        this.blockPool = new ObjectPool<>(Terrain::createPooledBlock, MAX_POOLED_BLOCKS);
+        this.fillPool = new ObjectPool<>(Terrain::createPooledFill, MAX_POOLED_FILLS);
+        this.chunkHeights = new HashMap<>();
     }
 
     /**
-     * Calculates the ground height at a specific x-coordinate.
+     * Returns the pool the terrain takes its blocks from.
+     * @return The block pool.
+     */
+    public ObjectPool<Block> getBlockPool() {
+        return blockPool;
+    }
+
+    /**
+     * Returns the pool the terrain takes its column fills from.
+     * @return The fill pool.
+     */
+    public ObjectPool<GameObject> getFillPool() {
+        return fillPool;
+    }
+
+    /**
+     * Gives a terrain object that was removed from the game back to its pool, to be reused by the next
+     * terrain created.
+     * @param terrainObject A Block or column fill created by this terrain.
+     */
+    public void recycle(GameObject terrainObject) {
+        if (terrainObject instanceof Block) {
+            blockPool.release((Block) terrainObject);
+        } else {
+            fillPool.release(terrainObject);
+        }
+    }
+
+    /**
+     * Returns the ground height at a specific x-coordinate.
+     * Heights at block columns of committed chunks are read from the chunk's height map, until the chunk is
+     * released. Any other height is computed directly and not remembered, so queries far from the world's
+     * chunks take no memory.
      * @param x The x-coordinate.
      * @return The y-coordinate of the ground at the given x.
      */
     public float groundHeightAt(float x) {
+        int column = (int) Math.floor(x / BLOCK_SIZE);
+        if (column * BLOCK_SIZE != x) {
+            return computeGroundHeightAt(x);
+        }
+        int chunkIndex = Math.floorDiv(column, COLUMNS_PER_CHUNK);
+        float[] heights = heightsOfChunk(chunkIndex);
+        if (heights == null) {
+            return computeGroundHeightAt(x);
+        }
+        return heights[column - chunkIndex * COLUMNS_PER_CHUNK];
+    }
+
+    /**
+     * Returns the y-coordinate of the top of the terrain's surface block at a specific x-coordinate.
+     * Unlike groundHeightAt, this is aligned to the block grid, exactly where the top of the column
+     * containing x is drawn.
+     * @param x The x-coordinate.
+     * @return The y-coordinate of the top of the column containing x.
+     */
+    public float surfaceHeightAt(float x) {
+        float columnX = (float) Math.floor(x / BLOCK_SIZE) * BLOCK_SIZE;
+        return windowY - (cellsInColumn(groundHeightAt(columnX)) - 1) * BLOCK_SIZE;
+    }
+
+    /**
+     * Calculates the ground height at a specific x-coordinate, without the height map.
+     * @param x The x-coordinate.
+     * @return The y-coordinate of the ground at the given x.
+     */
+    private float computeGroundHeightAt(float x) {
 //        System.out.printf("groundHeightAtX0: %f\n", groundHeightAtX0);
         float noise = (float) noiseGenerator.noise(x, Constants.BLOCK_SIZE * NOISE_FACTOR);
 //        System.out.println(groundHeightAtX0 + noise);
         return groundHeightAtX0 + noise;
     }
 
+    /**
+     * Returns the height map of a committed chunk.
+     * @param chunkIndex The index of the chunk.
+     * @return The ground heights of the chunk's block columns, from left to right, or null if the chunk's
+     *         heights were not committed.
+     */
+    private float[] heightsOfChunk(int chunkIndex) {
+        if (lastChunkHeights != null && lastChunkIndex == chunkIndex) {
+            return lastChunkHeights;
+        }
+        float[] heights = chunkHeights.get(chunkIndex);
+        if (heights == null) {
+            return null;
+        }
+        lastChunkIndex = chunkIndex;
+        lastChunkHeights = heights;
+        return heights;
+    }
+
+    /**
+     * Computes the ground heights of all the block columns of a chunk in one batch.
+     * Does not touch the height map, so it is safe to call from any thread.
+     * @param chunkIndex The index of the chunk.
+     * @return The ground heights of the chunk's block columns, from left to right.
+     */
+    private float[] computeChunkHeights(int chunkIndex) {
+        float[] heights = new float[COLUMNS_PER_CHUNK];
+        noiseGenerator.noise((double) chunkIndex * Constants.CHUNK_WIDTH, BLOCK_SIZE,
+                Constants.BLOCK_SIZE * NOISE_FACTOR, heights, 0, COLUMNS_PER_CHUNK);
+        for (int i = 0; i < COLUMNS_PER_CHUNK; i++) {
+            heights[i] += groundHeightAtX0;
+        }
+        return heights;
+    }
+
+    /**
+     * Computes the content of a chunk as plain data: its ground heights, the colors of all of its ground
+     * cells, and those cells baked into a single image. The colors are hashed from the world seed and the
+     * position of each cell, so the result depends on nothing else. Safe to call from any thread.
+     * @param chunkIndex The index of the chunk.
+     * @return The chunk's data.
+     * @see pepse.world.chunks.ChunkGenerator
+     */
+    public ChunkData generateChunk(int chunkIndex) {
+        float[] heights = computeChunkHeights(chunkIndex);
+        Color[][] cellColors = new Color[COLUMNS_PER_CHUNK][];
+        for (int i = 0; i < COLUMNS_PER_CHUNK; i++) {
+            cellColors[i] = cellColors(chunkIndex * COLUMNS_PER_CHUNK + i, cellsInColumn(heights[i]));
+        }
+        return new ChunkData(chunkIndex, heights, cellColors, bakeGroundImage(cellColors));
+    }
+
+    /**
+     * Bakes the ground cells of a chunk into an image with one pixel per cell, aligned to the bottom cell
+     * of the columns. Pixels above a column's surface are transparent.
+     * @param cellColors The colors of the cells of every column, from the surface down.
+     * @return The baked image.
+     */
+    private static BufferedImage bakeGroundImage(Color[][] cellColors) {
+        int rows = 0;
+        for (Color[] column : cellColors) {
+            rows = Math.max(rows, column.length);
+        }
+        BufferedImage image = new BufferedImage(cellColors.length, rows, BufferedImage.TYPE_INT_ARGB);
+        for (int i = 0; i < cellColors.length; i++) {
+            int firstRow = rows - cellColors[i].length;
+            for (int j = 0; j < cellColors[i].length; j++) {
+                image.setRGB(i, firstRow + j, cellColors[i][j].getRGB());
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Creates a single object drawing all the ground of generated chunk data, from its baked image.
+     * The object takes no part in collisions.
+     * @param data The chunk data.
+     * @return A GameObject covering the chunk's ground.
+     */
+    public GameObject createChunkSprite(ChunkData data) {
+        BufferedImage image = data.getGroundImage();
+        GameObject sprite = fillPool.obtain();
+        float topY = windowY - (image.getHeight() - 1) * BLOCK_SIZE;
+        sprite.setTopLeftCorner(new Vector2(columnX(data, 0), topY));
+        sprite.setDimensions(Vector2.of(image.getWidth() * BLOCK_SIZE, image.getHeight() * BLOCK_SIZE));
+        sprite.renderer().setRenderable(new CellImageRenderable(image));
+        return sprite;
+    }
+
+    /**
+     * Creates the invisible surface block of a single column of generated chunk data, for collisions
+     * only, when the column is drawn by its chunk's sprite.
+     * @param data The chunk data.
+     * @param column The column inside the chunk.
+     * @return The surface Block of the column.
+     */
+    public Block createSurfaceCollider(ChunkData data, int column) {
+        float surfaceY = windowY - (data.getCellColors(column).length - 1) * BLOCK_SIZE;
+        Block surface = blockPool.obtain();
+        surface.reset(new Vector2(columnX(data, column), surfaceY), null);
+        return surface;
+    }
+
+    /**
+     * Stores the heights of generated chunk data in the height map, so later queries do not compute them
+     * again. Called on the game thread.
+     * @param data The chunk data.
+     */
+    public void commitHeights(ChunkData data) {
+        chunkHeights.putIfAbsent(data.getIndex(), data.getHeights());
+    }
+
+    /**
+     * Creates the ground blocks of a single column of generated chunk data.
+     * @param data The chunk data.
+     * @param column The column inside the chunk.
+     * @return A list of Block objects representing the ground of the column.
+     */
+    public List<Block> createBlocks(ChunkData data, int column) {
+        return fillBlockColumn(columnX(data, column), data.getCellColors(column));
+    }
+
+    /**
+     * Creates the merged terrain column of a single column of generated chunk data.
+     * @param data The chunk data.
+     * @param column The column inside the chunk.
+     * @return A GroundColumn representing the ground of the column.
+     */
+    public GroundColumn createColumn(ChunkData data, int column) {
+        return createColumn(columnX(data, column), data.getCellColors(column));
+    }
+
+    /**
+     * Returns the x-coordinate of a block column of a chunk.
+     * @param data The chunk data.
+     * @param column The column inside the chunk.
+     * @return The x-coordinate of the column.
+     */
+    private static int columnX(ChunkData data, int column) {
+        return data.getIndex() * Constants.CHUNK_WIDTH + column * BLOCK_SIZE;
+    }
+
+    /**
+     * Returns the number of ground cells in a column whose ground is at the given height.
+     * @param groundHeight The y-coordinate of the ground.
+     * @return The number of cells from the surface to the bottom of the window.
+     */
+    private int cellsInColumn(float groundHeight) {
+        float height = windowY - groundHeight;
+        return (int) Math.ceil(height / BLOCK_SIZE) + 1;
+    }
+
+    /**
+     * Forgets the height map of a chunk that left the world, it is computed again if the chunk returns.
+     * @param chunkIndex The index of the chunk.
+     */
+    public void releaseHeights(int chunkIndex) {
+        chunkHeights.remove(chunkIndex);
+        if (lastChunkIndex == chunkIndex) {
+            lastChunkHeights = null;
+        }
+    }
 
     /**
      * Creates and returns a list of ground blocks within a given range.
@@ -63,13 +310,33 @@ public class Terrain {
         int end = (int) (Math.ceil((double) maxX / BLOCK_SIZE)) * BLOCK_SIZE;
         List<Block> allBlocks = new ArrayList<>();
         for (int x = start; x < end ; x += BLOCK_SIZE) {
-            float height = windowY - groundHeightAt(x);
-            int heightInBlocks = (int) Math.ceil(height / BLOCK_SIZE) + 1;
-            allBlocks.addAll(fillBlockColumn(x, heightInBlocks));
+            Color[] cellColors = cellColors(Math.floorDiv(x, BLOCK_SIZE), cellsInColumn(groundHeightAt(x)));
+            allBlocks.addAll(fillBlockColumn(x, cellColors));
         }
         return allBlocks;
     }
 
+    /**
+     * Creates and returns the merged terrain columns within a given range. Each column is made of a single
+     * collidable surface block and a single non-colliding fill, and looks the same as the column of blocks
+     * created by createInRange.
+     * @param minX The minimum x-coordinate of the range.
+     * @param maxX The maximum x-coordinate of the range.
+     * @return A list of GroundColumn objects representing the ground in the specified range.
+     * @see pepse.world.GroundColumn
+     */
+    public List<GroundColumn> createColumnsInRange(int minX, int maxX) {
+        int start = (minX / BLOCK_SIZE) * BLOCK_SIZE;
+        int end = (int) (Math.ceil((double) maxX / BLOCK_SIZE)) * BLOCK_SIZE;
+        List<GroundColumn> columns = new ArrayList<>();
+        for (int x = start; x < end ; x += BLOCK_SIZE) {
+            Color[] cellColors = cellColors(Math.floorDiv(x, BLOCK_SIZE), cellsInColumn(groundHeightAt(x)));
+            columns.add(createColumn(x, cellColors));
+        }
+        return columns;
+    }
+
+
 //    private float getBlocksHeightForX(float x) {
 //        if ((Math.abs(x - (windowX / 2)) < Constants.BLOCK_SIZE)){
 //            return windowY * 2f/3f;
@@ -78,22 +345,82 @@ public class Terrain {
 //        }
 //    }
 
+    /**
+     * Returns approximated ground colors for the cells of a column, hashed from the world seed, the column
+     * and the depth of each cell, so a column always gets the same colors.
+     * @param blockColumn The index of the column in blocks, from x = 0.
+     * @param colBlockNum The number of cells in the column.
+     * @return The cell colors, from the surface down.
+     */
+    private Color[] cellColors(int blockColumn, int colBlockNum) {
+        Color[] cellColors = new Color[colBlockNum];
+        for (int i = 0; i < colBlockNum; i++) {
+            int depth = colBlockNum - 1 - i;
+            cellColors[i] = ColorSupplier.approximateColor(BASE_GROUND_COLOR, seed,
+                    HashRandom.cell(blockColumn, depth), HashRandom.GROUND_COLOR);
+        }
+        return cellColors;
+    }
+
     /**
      * Fills a vertical column of blocks at a specified x-coordinate.
      * @param xCoordinate The x-coordinate of the column.
-     * @param colBlockNum The number of blocks in the column.
+     * @param cellColors The colors of the blocks in the column, from the surface down.
      * @return A list of Block objects representing the column.
      */
-    private List<Block> fillBlockColumn(int xCoordinate, int colBlockNum) {
+    private List<Block> fillBlockColumn(int xCoordinate, Color[] cellColors) {
         List<Block> blocksCol = new ArrayList<>();
+        int colBlockNum = cellColors.length;
         for (int l = 0; l < colBlockNum; l ++) {
             Vector2 topLeftCorner = new Vector2(xCoordinate, windowY - (l * BLOCK_SIZE));
-            Renderable blockRenderable = new RectangleRenderable(
-                    ColorSupplier.approximateColor(BASE_GROUND_COLOR));
-            Block curBlock = new Block(topLeftCorner, blockRenderable);
-            curBlock.setTag(Constants.GROUND_TAG);
+            Renderable blockRenderable = GROUND_RENDERABLES.get(cellColors[colBlockNum - 1 - l]);
+            Block curBlock = blockPool.obtain();
+            curBlock.reset(topLeftCorner, blockRenderable);
             blocksCol.add(curBlock);
         }
         return blocksCol;
     }
+
+    /**
+     * Creates a merged column at a specified x-coordinate, covering the same cells as fillBlockColumn. The
+     * column is a single collidable surface block and a single non-colliding fill.
+     * @param xCoordinate The x-coordinate of the column.
+     * @param cellColors The colors of the cells in the column, from the surface down.
+     * @return A GroundColumn representing the column.
+     */
+    private GroundColumn createColumn(int xCoordinate, Color[] cellColors) {
+        int colBlockNum = cellColors.length;
+        float surfaceY = windowY - ((colBlockNum - 1) * BLOCK_SIZE);
+        Block surface = blockPool.obtain();
+        surface.reset(new Vector2(xCoordinate, surfaceY), GROUND_RENDERABLES.get(cellColors[0]));
+        if (colBlockNum == 1) {
+            return new GroundColumn(surface, null);
+        }
+        Color[] fillColors = Arrays.copyOfRange(cellColors, 1, colBlockNum);
+        GameObject fill = fillPool.obtain();
+        fill.setTopLeftCorner(new Vector2(xCoordinate, surfaceY + BLOCK_SIZE));
+        fill.setDimensions(Vector2.of(BLOCK_SIZE, fillColors.length * BLOCK_SIZE));
+        fill.renderer().setRenderable(new ColumnRenderable(fillColors));
+        return new GroundColumn(surface, fill);
+    }
+
+    /**
+     * Creates an empty ground block for the block pool.
+     * @return A new Block tagged as ground.
+     */
+    private static Block createPooledBlock() {
+        Block block = new Block(Vector2.ZERO, null);
+        block.setTag(Constants.GROUND_TAG);
+        return block;
+    }
+
+    /**
+     * Creates an empty, non-colliding column fill for the fill pool.
+     * @return A new GameObject tagged as ground.
+     */
+    private static GameObject createPooledFill() {
+        GameObject fill = new GameObject(Vector2.ZERO, Vector2.ONES.mult(BLOCK_SIZE), null);
+        fill.setTag(Constants.GROUND_TAG);
+        return fill;
+    }
 }
@@ -0,0 +1,174 @@
+package pepse.world.chunks;
+
+import danogl.GameObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Represents a fixed-width slice of the streamed world, identified by its chunk index.
+ * A chunk is split into block columns. It remembers every GameObject each column produced together with
+ * the layer it belongs to, so the chunk can be built, attached to and detached from the game one column
+ * at a time.
+ * @author: Batia
+ * @see pepse.world.chunks.ChunkManager
+ */
+public class Chunk {
+    private static final byte NOT_BUILT = 0;
+    private static final byte BUILT = 1;
+    private static final byte IN_GAME = 2;
+    private final int index;
+    private final ChunkData data;
+    private final List<List<GameObject>> objects;
+    private final List<List<Integer>> layers;
+    private final byte[] columnStates;
+    private boolean attached;
+
+    /**
+     * Constructs an empty chunk.
+     * @param index The index of the chunk, chunk i covers [i * chunkWidth, (i + 1) * chunkWidth).
+     * @param data The generated data the chunk's columns are built from.
+     */
+    public Chunk(int index, ChunkData data) {
+        this.index = index;
+        this.data = data;
+        this.objects = new ArrayList<>();
+        this.layers = new ArrayList<>();
+        for (int i = 0; i < data.columnCount(); i++) {
+            objects.add(new ArrayList<>());
+            layers.add(new ArrayList<>());
+        }
+        this.columnStates = new byte[data.columnCount()];
+    }
+
+    /**
+     * Returns the index of the chunk.
+     * @return The chunk index.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the generated data the chunk is built from.
+     * @return The chunk data.
+     */
+    public ChunkData getData() {
+        return data;
+    }
+
+    /**
+     * Returns the number of block columns in the chunk.
+     * @return The number of columns.
+     */
+    public int columnCount() {
+        return columnStates.length;
+    }
+
+    /**
+     * Returns the number of GameObjects owned by the chunk.
+     * @return The number of objects.
+     */
+    public int size() {
+        int size = 0;
+        for (List<GameObject> column : objects) {
+            size += column.size();
+        }
+        return size;
+    }
+
+    /**
+     * Registers a GameObject as part of a column of this chunk.
+     * @param column The column the object belongs to.
+     * @param gameObject The object to add.
+     * @param layer The layer the object should live in while the chunk is attached.
+     */
+    public void add(int column, GameObject gameObject, int layer) {
+        objects.get(column).add(gameObject);
+        layers.get(column).add(layer);
+    }
+
+    /**
+     * Stops treating a GameObject as part of a column of this chunk.
+     * @param column The column the object belongs to.
+     * @param gameObject The object to remove.
+     * @return True if the object was part of the column.
+     */
+    public boolean remove(int column, GameObject gameObject) {
+        int i = objects.get(column).indexOf(gameObject);
+        if (i < 0) {
+            return false;
+        }
+        objects.get(column).remove(i);
+        layers.get(column).remove(i);
+        return true;
+    }
+
+    /**
+     * Passes every object of a column, with its layer, to the given callback.
+     * @param column The column.
+     * @param callback The callback to apply on every (object, layer) pair.
+     */
+    public void forEachInColumn(int column, BiConsumer<GameObject, Integer> callback) {
+        List<GameObject> columnObjects = objects.get(column);
+        List<Integer> columnLayers = layers.get(column);
+        for (int i = 0; i < columnObjects.size(); i++) {
+            callback.accept(columnObjects.get(i), columnLayers.get(i));
+        }
+    }
+
+    /**
+     * Passes every object of the chunk, with its layer, to the given callback.
+     * @param callback The callback to apply on every (object, layer) pair.
+     */
+    public void forEach(BiConsumer<GameObject, Integer> callback) {
+        for (int column = 0; column < columnStates.length; column++) {
+            forEachInColumn(column, callback);
+        }
+    }
+
+    /**
+     * Returns whether the chunk is currently meant to be in the game. Columns may still be on their way in
+     * or out.
+     * @return True if the chunk is attached.
+     */
+    public boolean isAttached() {
+        return attached;
+    }
+
+    /**
+     * Marks whether the chunk is meant to be in the game.
+     * @param attached True if the chunk is attached.
+     */
+    void setAttached(boolean attached) {
+        this.attached = attached;
+    }
+
+    /**
+     * Returns whether the objects of a column were already created.
+     * @param column The column.
+     * @return True if the column was built.
+     */
+    boolean isBuilt(int column) {
+        return columnStates[column] != NOT_BUILT;
+    }
+
+    /**
+     * Returns whether the objects of a column are currently in the game.
+     * @param column The column.
+     * @return True if the column is in the game.
+     */
+    boolean isInGame(int column) {
+        return columnStates[column] == IN_GAME;
+    }
+
+    /**
+     * Records whether the objects of a built column are in the game.
+     * @param column The column.
+     * @param inGame True if the column's objects were added to the game, false if they were removed.
+     */
+    void setInGame(int column, boolean inGame) {
+        columnStates[column] = inGame ? IN_GAME : BUILT;
+    }
+}
@@ -0,0 +1,97 @@
+package pepse.world.chunks;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A bounded least-recently-used cache of chunks that are no longer resident, so they can be re-attached
+ * without being generated again.
+ * @author: Batia
+ * @see pepse.world.chunks.ChunkManager
+ */
+public class ChunkCache {
+    private final LinkedHashMap<Integer, Chunk> chunks;
+    private int hits;
+    private int misses;
+
+    /**
+     * Constructs a new ChunkCache.
+     * @param capacity The maximal number of chunks kept in the cache.
+     * @param discardCallback Called with every chunk that is pushed out of the cache for good.
+     */
+    public ChunkCache(int capacity, Consumer<Chunk> discardCallback) {
+        this.chunks = new LinkedHashMap<>(capacity + 1, 1f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Chunk> eldest) {
+                if (size() > capacity) {
+                    discardCallback.accept(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Stores a chunk that just left residency.
+     * @param chunk The chunk to keep.
+     */
+    public void put(Chunk chunk) {
+        chunks.put(chunk.getIndex(), chunk);
+    }
+
+    /**
+     * Takes a chunk out of the cache, counting a hit or a miss.
+     * @param index The index of the wanted chunk.
+     * @return The cached chunk, or null if it is not in the cache.
+     */
+    public Chunk take(int index) {
+        Chunk chunk = chunks.remove(index);
+        if (chunk == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return chunk;
+    }
+
+    /**
+     * Finds a chunk in the cache without taking it out, counting a hit or a miss, or changing its place in
+     * the eviction order.
+     * @param index The index of the wanted chunk.
+     * @return The cached chunk, or null if it is not in the cache.
+     */
+    public Chunk peek(int index) {
+        for (Chunk chunk : chunks.values()) {
+            if (chunk.getIndex() == index) {
+                return chunk;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of chunks currently waiting in the cache.
+     * @return The cache size.
+     */
+    public int size() {
+        return chunks.size();
+    }
+
+    /**
+     * Returns the number of requests that were served from the cache.
+     * @return The number of hits.
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of requests that required generating a new chunk.
+     * @return The number of misses.
+     */
+    public int getMisses() {
+        return misses;
+    }
+}
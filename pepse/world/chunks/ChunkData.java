@@ -0,0 +1,94 @@
+package pepse.world.chunks;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * The content of a chunk as plain data, with no GameObjects: the ground height and the colors of the
+ * ground cells of every block column, the same cells baked into a single image, and the columns that
+ * have a tree. Chunk data can be
+ * computed on any thread, and is turned into GameObjects on the game thread.
+ * Chunks never change once generated, so the baked image lives as long as the data does.
+ * @author: Batia
+ * @see pepse.world.chunks.ChunkGenerator
+ */
+public class ChunkData {
+    private final int index;
+    private final float[] heights;
+    private final Color[][] cellColors;
+    private final BufferedImage groundImage;
+    private boolean[] treeColumns;
+
+    /**
+     * Constructs a new ChunkData.
+     * @param index The index of the chunk.
+     * @param heights The ground height of every block column of the chunk, from left to right.
+     * @param cellColors The colors of the ground cells of every block column, from the surface down.
+     * @param groundImage The ground cells of the chunk, one pixel per cell, bottom-aligned.
+     */
+    public ChunkData(int index, float[] heights, Color[][] cellColors, BufferedImage groundImage) {
+        this.index = index;
+        this.heights = heights;
+        this.cellColors = cellColors;
+        this.groundImage = groundImage;
+    }
+
+    /**
+     * Returns the ground cells of the chunk baked into an image with one pixel per cell. Column i of the
+     * chunk is pixel column i, and the bottom pixel row is the bottom cell of every column.
+     * @return The baked ground image.
+     */
+    public BufferedImage getGroundImage() {
+        return groundImage;
+    }
+
+    /**
+     * Returns the index of the chunk.
+     * @return The chunk index.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the ground heights of the chunk's block columns.
+     * @return The heights, from left to right.
+     */
+    public float[] getHeights() {
+        return heights;
+    }
+
+    /**
+     * Returns the ground cell colors of a block column.
+     * @param column The column inside the chunk, 0 is the leftmost column.
+     * @return The colors of the column's cells, from the surface down.
+     */
+    public Color[] getCellColors(int column) {
+        return cellColors[column];
+    }
+
+    /**
+     * Sets the columns of the chunk that have a tree. Called once, by the generator of the chunk.
+     * @param treeColumns For every block column, from left to right, whether it has a tree.
+     */
+    public void setTreeColumns(boolean[] treeColumns) {
+        this.treeColumns = treeColumns;
+    }
+
+    /**
+     * Returns whether a block column of the chunk has a tree.
+     * @param column The column inside the chunk.
+     * @return True if a tree grows in the column.
+     */
+    public boolean hasTree(int column) {
+        return treeColumns != null && treeColumns[column];
+    }
+
+    /**
+     * Returns the number of block columns in the chunk.
+     * @return The number of columns.
+     */
+    public int columnCount() {
+        return heights.length;
+    }
+}
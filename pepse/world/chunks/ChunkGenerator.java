@@ -0,0 +1,160 @@
+package pepse.world.chunks;
+
+import pepse.util.WorldEvents;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Computes chunk data on a pool of worker threads, ahead of the avatar.
+ * Finished chunks are handed back to the game thread through a lock-free queue. The game thread only ever
+ * takes finished data, and computes a chunk itself if it is needed before its worker is done, so the world
+ * never has holes. Since the generating function depends only on the chunk index (and the world's seed),
+ * a chunk is the same whichever thread computed it. A chunk whose worker failed is counted, emitted as a
+ * flight recorder event, and can be requested again. The workers stop when the generator is closed.
+ * @author: Batia
+ * @see pepse.world.chunks.ChunkData
+ */
+public class ChunkGenerator {
+    private static final String THREAD_NAME = "chunk-generator";
+    private final IntFunction<ChunkData> generator;
+    private final ExecutorService workers;
+    private final ConcurrentLinkedQueue<ChunkData> finished;
+    private final ConcurrentLinkedQueue<Integer> failed;
+    private final HashSet<Integer> requested;
+    private final HashMap<Integer, ChunkData> ready;
+    private int syncGenerated;
+    private int failedCount;
+
+    /**
+     * Constructs a new ChunkGenerator.
+     * @param generator Computes the data of the chunk with the given index. Must be thread-safe and
+     *                  deterministic.
+     * @param workerCount The number of worker threads.
+     */
+    public ChunkGenerator(IntFunction<ChunkData> generator, int workerCount) {
+        this.generator = generator;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME + "-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.finished = new ConcurrentLinkedQueue<>();
+        this.failed = new ConcurrentLinkedQueue<>();
+        this.requested = new HashSet<>();
+        this.ready = new HashMap<>();
+    }
+
+    /**
+     * Asks the workers to compute a chunk, unless it is already requested or ready.
+     * Called from the game thread.
+     * @param index The index of the chunk.
+     */
+    public void prefetch(int index) {
+        if (requested.contains(index) || ready.containsKey(index)) {
+            return;
+        }
+        if (workers.isShutdown()) {
+            return;
+        }
+        requested.add(index);
+        workers.execute(() -> generate(index));
+    }
+
+    /**
+     * Stops the worker threads. Chunks still being computed are dropped, later chunks are computed on the
+     * calling thread by take.
+     */
+    public void close() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Computes a chunk on a worker thread and queues it for the game thread. If computing fails, the
+     * failure is emitted as an event and the index is queued as failed, so the chunk can be requested
+     * again.
+     * @param index The index of the chunk.
+     */
+    private void generate(int index) {
+        try {
+            finished.offer(generator.apply(index));
+        } catch (RuntimeException e) {
+            WorldEvents.ChunkGenerationFailed event = new WorldEvents.ChunkGenerationFailed();
+            event.chunkIndex = index;
+            event.error = e.toString();
+            event.commit();
+            failed.offer(index);
+        }
+    }
+
+    /**
+     * Returns the data of a chunk, taking it from the workers if they finished it, and computing it on the
+     * calling thread otherwise. Called from the game thread.
+     * @param index The index of the chunk.
+     * @return The chunk data.
+     */
+    public ChunkData take(int index) {
+        drain();
+        ChunkData data = ready.remove(index);
+        if (data == null) {
+            syncGenerated++;
+            data = generator.apply(index);
+        }
+        return data;
+    }
+
+    /**
+     * Drops finished chunks outside the given range, which the avatar turned away from.
+     * @param minIndex The smallest chunk index worth keeping.
+     * @param maxIndex The largest chunk index worth keeping.
+     */
+    public void retainRange(int minIndex, int maxIndex) {
+        drain();
+        Iterator<Integer> it = ready.keySet().iterator();
+        while (it.hasNext()) {
+            int index = it.next();
+            if (index < minIndex || index > maxIndex) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Moves the chunks the workers finished into the ready map, and forgets the requests that failed.
+     */
+    private void drain() {
+        Integer failedIndex;
+        while ((failedIndex = failed.poll()) != null) {
+            requested.remove(failedIndex);
+            failedCount++;
+        }
+        ChunkData data;
+        while ((data = finished.poll()) != null) {
+            requested.remove(data.getIndex());
+            ready.put(data.getIndex(), data);
+        }
+    }
+
+    /**
+     * Returns the number of chunks that were needed before a worker finished them.
+     * @return The number of chunks computed on the game thread.
+     */
+    public int getSyncGeneratedCount() {
+        return syncGenerated;
+    }
+
+    /**
+     * Returns the number of chunks the workers failed to compute.
+     * @return The number of failed requests.
+     */
+    public int getFailedCount() {
+        return failedCount;
+    }
+}
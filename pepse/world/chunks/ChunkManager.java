@@ -0,0 +1,371 @@
+package pepse.world.chunks;
+
+import danogl.GameObject;
+
+import java.util.HashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Decides which chunks of the world are resident around a given x-coordinate, and attaches or detaches them.
+ * Chunks are loaded once they come within the load distance, but only unloaded once they are further than
+ * the load distance plus a hysteresis margin, so pacing back and forth near a chunk border never triggers
+ * any work. Unloaded chunks go to a ChunkCache and are re-attached from there when possible.
+ * Building, adding and removing the columns of a chunk is done through a StreamingScheduler, so it is
+ * spread over several frames under a time budget, nearest columns first.
+ * @author: Batia
+ * @see pepse.world.chunks.Chunk
+ * @see pepse.world.chunks.ChunkCache
+ * @see pepse.world.chunks.StreamingScheduler
+ */
+public class ChunkManager {
+    private static final float DEFAULT_FRAME_BUDGET_MILLIS = 2f;
+    private final int chunkWidth;
+    private final float loadDistance;
+    private final float hysteresis;
+    private final IntFunction<Chunk> chunkFactory;
+    private final ObjIntConsumer<Chunk> columnBuilder;
+    private final BiConsumer<GameObject, Integer> addCallback;
+    private final BiConsumer<GameObject, Integer> removeCallback;
+    private final Consumer<Chunk> discardCallback;
+    private final HashMap<Integer, Chunk> resident;
+    private final ChunkCache cache;
+    private final StreamingScheduler scheduler;
+    private int residentLo;
+    private int residentHi;
+    private ChunkGenerator prefetcher;
+    private int prefetchChunks;
+    private float lastCenterX;
+    private int lastPrefetchFrom;
+    private int lastPrefetchStep;
+
+    /**
+     * Constructs a new ChunkManager.
+     * @param chunkWidth The width of a chunk in pixels.
+     * @param loadDistance Chunks closer than this distance (in pixels) to the center are made resident.
+     * @param hysteresis Extra distance (in pixels) a chunk has to move away before it is unloaded.
+     * @param cacheCapacity The number of unloaded chunks to keep ready for re-attaching.
+     * @param chunkFactory Creates the (still empty) chunk with the given index.
+     * @param columnBuilder Creates the objects of the given column of a chunk and registers them in it.
+     * @param addCallback Adds a GameObject to the given layer of the game.
+     * @param removeCallback Removes a GameObject from the given layer of the game.
+     * @param discardCallback Called with every chunk that is dropped from the cache, so its objects can
+     *                        be recycled.
+     */
+    public ChunkManager(int chunkWidth, float loadDistance, float hysteresis, int cacheCapacity,
+                        IntFunction<Chunk> chunkFactory, ObjIntConsumer<Chunk> columnBuilder,
+                        BiConsumer<GameObject, Integer> addCallback,
+                        BiConsumer<GameObject, Integer> removeCallback, Consumer<Chunk> discardCallback) {
+        this.chunkWidth = chunkWidth;
+        this.loadDistance = loadDistance;
+        this.hysteresis = hysteresis;
+        this.chunkFactory = chunkFactory;
+        this.columnBuilder = columnBuilder;
+        this.addCallback = addCallback;
+        this.removeCallback = removeCallback;
+        this.discardCallback = discardCallback;
+        this.resident = new HashMap<>();
+        this.cache = new ChunkCache(cacheCapacity, this::discard);
+        this.scheduler = new StreamingScheduler(DEFAULT_FRAME_BUDGET_MILLIS);
+    }
+
+    /**
+     * Makes the manager ask the given generator for the chunks ahead of the center in its direction of
+     * travel, so they are computed in the background before they are needed.
+     * @param prefetcher The generator to prefetch chunks with.
+     * @param prefetchChunks The number of chunks to prefetch beyond the resident ones.
+     */
+    public void setPrefetcher(ChunkGenerator prefetcher, int prefetchChunks) {
+        this.prefetcher = prefetcher;
+        this.prefetchChunks = prefetchChunks;
+    }
+
+    /**
+     * Sets the time the manager may spend on building, adding and removing columns every frame.
+     * @param budgetMillis The budget in milliseconds.
+     */
+    public void setFrameBudget(float budgetMillis) {
+        scheduler.setBudget(budgetMillis);
+    }
+
+    /**
+     * Returns the index of the chunk containing the given x-coordinate.
+     * @param x The x-coordinate.
+     * @return The chunk index.
+     */
+    public int chunkIndexAt(float x) {
+        return (int) Math.floor(x / chunkWidth);
+    }
+
+    /**
+     * Updates the resident chunks around the given x-coordinate, then runs as much pending column work as
+     * the frame budget allows. Chunks only change when one crosses the load distance or the unload
+     * distance.
+     * @param centerX The x-coordinate the world should be resident around (usually the avatar).
+     */
+    public void update(float centerX) {
+        updateResidency(centerX);
+        scheduler.run(centerX);
+    }
+
+    /**
+     * Makes the chunks around the given x-coordinate resident and fully builds them right away, ignoring
+     * the frame budget. Used when the world is first created.
+     * @param centerX The x-coordinate the world should be resident around.
+     */
+    public void load(float centerX) {
+        updateResidency(centerX);
+        scheduler.runAll();
+    }
+
+    /**
+     * Attaches the chunks that came within the load distance and detaches those beyond the unload distance.
+     * @param centerX The x-coordinate the world should be resident around.
+     */
+    private void updateResidency(float centerX) {
+        int wantLo = chunkIndexAt(centerX - loadDistance);
+        int wantHi = chunkIndexAt(centerX + loadDistance);
+        if (prefetcher != null && centerX != lastCenterX) {
+            prefetchAhead(centerX > lastCenterX ? 1 : -1, wantLo, wantHi);
+        }
+        lastCenterX = centerX;
+        int keepLo = chunkIndexAt(centerX - loadDistance - hysteresis);
+        int keepHi = chunkIndexAt(centerX + loadDistance + hysteresis);
+        if (!resident.isEmpty() && (residentHi < keepLo || residentLo > keepHi)) {
+            while (residentLo <= residentHi) {
+                detach(residentLo++);
+            }
+        }
+        if (resident.isEmpty()) {
+            residentLo = wantLo;
+            residentHi = wantHi;
+            for (int i = wantLo; i <= wantHi; i++) {
+                attach(i);
+            }
+            return;
+        }
+        while (residentLo < keepLo) {
+            detach(residentLo++);
+        }
+        while (residentHi > keepHi) {
+            detach(residentHi--);
+        }
+        while (residentLo > wantLo) {
+            attach(--residentLo);
+        }
+        while (residentHi < wantHi) {
+            attach(++residentHi);
+        }
+    }
+
+    /**
+     * Requests the chunks just beyond the wanted range in the direction of travel, and lets go of
+     * prefetched chunks the center moved away from. Does nothing if the requested chunks did not change.
+     * @param step 1 when moving right, -1 when moving left.
+     * @param wantLo The leftmost wanted chunk.
+     * @param wantHi The rightmost wanted chunk.
+     */
+    private void prefetchAhead(int step, int wantLo, int wantHi) {
+        int from = step > 0 ? wantHi : wantLo;
+        if (from == lastPrefetchFrom && step == lastPrefetchStep) {
+            return;
+        }
+        lastPrefetchFrom = from;
+        lastPrefetchStep = step;
+        prefetcher.retainRange(wantLo - prefetchChunks, wantHi + prefetchChunks);
+        for (int k = 1; k <= prefetchChunks; k++) {
+            prefetcher.prefetch(from + step * k);
+        }
+    }
+
+    /**
+     * Makes a chunk resident, re-using the cached chunk if there is one, and schedules its columns to be
+     * built and added to the game.
+     * @param index The index of the chunk.
+     */
+    private void attach(int index) {
+        Chunk chunk = cache.take(index);
+        if (chunk == null) {
+            chunk = chunkFactory.apply(index);
+        }
+        chunk.setAttached(true);
+        resident.put(index, chunk);
+        for (int column = 0; column < chunk.columnCount(); column++) {
+            Chunk attached = chunk;
+            int col = column;
+            scheduler.submit(columnCenterX(chunk, column), () -> showColumn(attached, col));
+        }
+    }
+
+    /**
+     * Removes a chunk from residency, moves it to the cache and schedules its columns to be removed from
+     * the game.
+     * @param index The index of the chunk.
+     */
+    private void detach(int index) {
+        Chunk chunk = resident.remove(index);
+        if (chunk == null) {
+            return;
+        }
+        chunk.setAttached(false);
+        for (int column = 0; column < chunk.columnCount(); column++) {
+            if (chunk.isInGame(column)) {
+                int col = column;
+                scheduler.submit(columnCenterX(chunk, column), () -> hideColumn(chunk, col));
+            }
+        }
+        cache.put(chunk);
+    }
+
+    /**
+     * Builds a column if needed and adds it to the game, unless its chunk was detached in the meantime.
+     * @param chunk The chunk.
+     * @param column The column.
+     */
+    private void showColumn(Chunk chunk, int column) {
+        if (!chunk.isAttached() || chunk.isInGame(column)) {
+            return;
+        }
+        if (!chunk.isBuilt(column)) {
+            columnBuilder.accept(chunk, column);
+        }
+        chunk.forEachInColumn(column, addCallback);
+        chunk.setInGame(column, true);
+    }
+
+    /**
+     * Removes a column from the game, unless its chunk was attached again in the meantime.
+     * @param chunk The chunk.
+     * @param column The column.
+     */
+    private void hideColumn(Chunk chunk, int column) {
+        if (chunk.isAttached() || !chunk.isInGame(column)) {
+            return;
+        }
+        chunk.forEachInColumn(column, removeCallback);
+        chunk.setInGame(column, false);
+    }
+
+    /**
+     * Drops a chunk pushed out of the cache. Columns still waiting to be removed are removed right away,
+     * so no discarded object stays in the game.
+     * @param chunk The discarded chunk.
+     */
+    private void discard(Chunk chunk) {
+        for (int column = 0; column < chunk.columnCount(); column++) {
+            hideColumn(chunk, column);
+        }
+        discardCallback.accept(chunk);
+    }
+
+    /**
+     * Registers an object that was not produced by the column builder as owned by the chunk containing the
+     * given x-coordinate, resident or cached. The object is added to the game right away if its column is
+     * in the game, and from then on it enters and leaves the game together with its column.
+     * @param x The x-coordinate the object belongs to.
+     * @param gameObject The object.
+     * @param layer The layer the object should live in while its chunk is attached.
+     * @return True if the object was registered, false if no known chunk contains x.
+     */
+    public boolean addToChunk(float x, GameObject gameObject, int layer) {
+        Chunk chunk = findChunk(chunkIndexAt(x));
+        if (chunk == null) {
+            return false;
+        }
+        int column = columnAt(chunk, x);
+        chunk.add(column, gameObject, layer);
+        if (chunk.isInGame(column)) {
+            addCallback.accept(gameObject, layer);
+        }
+        return true;
+    }
+
+    /**
+     * Stops an object from being owned by the chunk containing the given x-coordinate, removing it from the
+     * game if its column is in the game.
+     * @param x The x-coordinate the object was registered with.
+     * @param gameObject The object.
+     * @param layer The layer the object lives in.
+     * @return True if the object was owned by the chunk.
+     */
+    public boolean removeFromChunk(float x, GameObject gameObject, int layer) {
+        Chunk chunk = findChunk(chunkIndexAt(x));
+        if (chunk == null) {
+            return false;
+        }
+        int column = columnAt(chunk, x);
+        if (!chunk.remove(column, gameObject)) {
+            return false;
+        }
+        if (chunk.isInGame(column)) {
+            removeCallback.accept(gameObject, layer);
+        }
+        return true;
+    }
+
+    /**
+     * Finds a chunk that is resident or waiting in the cache.
+     * @param index The index of the chunk.
+     * @return The chunk, or null if it is neither.
+     */
+    private Chunk findChunk(int index) {
+        Chunk chunk = resident.get(index);
+        return chunk != null ? chunk : cache.peek(index);
+    }
+
+    /**
+     * Returns the column of a chunk containing the given x-coordinate.
+     * @param chunk The chunk.
+     * @param x The x-coordinate, inside the chunk.
+     * @return The column.
+     */
+    private int columnAt(Chunk chunk, float x) {
+        int column = (int) ((x - chunk.getIndex() * chunkWidth) * chunk.columnCount() / chunkWidth);
+        return Math.max(0, Math.min(chunk.columnCount() - 1, column));
+    }
+
+    /**
+     * Returns the x-coordinate of the center of a column of a chunk.
+     * @param chunk The chunk.
+     * @param column The column.
+     * @return The x-coordinate.
+     */
+    private float columnCenterX(Chunk chunk, int column) {
+        float columnWidth = (float) chunkWidth / chunk.columnCount();
+        return chunk.getIndex() * chunkWidth + (column + 0.5f) * columnWidth;
+    }
+
+    /**
+     * Returns the number of chunks currently in the game.
+     * @return The number of resident chunks.
+     */
+    public int getResidentCount() {
+        return resident.size();
+    }
+
+    /**
+     * Returns the number of column tasks waiting for a later frame.
+     * @return The number of pending streaming tasks.
+     */
+    public int getPendingWork() {
+        return scheduler.pendingCount();
+    }
+
+    /**
+     * Returns the number of chunk loads that were served from the cache.
+     * @return The number of cache hits.
+     */
+    public int getCacheHits() {
+        return cache.getHits();
+    }
+
+    /**
+     * Returns the number of chunk loads that had to generate a new chunk.
+     * @return The number of cache misses.
+     */
+    public int getCacheMisses() {
+        return cache.getMisses();
+    }
+}
@@ -0,0 +1,104 @@
+package pepse.world.chunks;
+
+import java.util.ArrayList;
+
+/**
+ * Spreads world streaming work over frames. Work is submitted as small tasks, each tied to the x-coordinate
+ * it affects, and every frame the tasks closest to the camera are run until the frame's time budget is
+ * used up. At least one task runs every frame, so streaming always makes progress.
+ * @author: Batia
+ * @see pepse.world.chunks.ChunkManager
+ */
+public class StreamingScheduler {
+    private static final long NANOS_IN_MILLI = 1_000_000L;
+    private final ArrayList<Task> pending;
+    private long budgetNanos;
+
+    /**
+     * A unit of streaming work and the x-coordinate it affects.
+     */
+    private static class Task {
+        private final float x;
+        private final Runnable work;
+
+        private Task(float x, Runnable work) {
+            this.x = x;
+            this.work = work;
+        }
+    }
+
+    /**
+     * Constructs a new StreamingScheduler.
+     * @param budgetMillis The time, in milliseconds, the scheduler may spend on tasks every frame.
+     */
+    public StreamingScheduler(float budgetMillis) {
+        this.pending = new ArrayList<>();
+        setBudget(budgetMillis);
+    }
+
+    /**
+     * Sets the time the scheduler may spend on tasks every frame.
+     * @param budgetMillis The budget in milliseconds.
+     */
+    public void setBudget(float budgetMillis) {
+        this.budgetNanos = (long) (budgetMillis * NANOS_IN_MILLI);
+    }
+
+    /**
+     * Adds a task to be run in a later frame.
+     * @param x The x-coordinate the task affects, tasks closer to the camera run first.
+     * @param work The work to run.
+     */
+    public void submit(float x, Runnable work) {
+        pending.add(new Task(x, work));
+    }
+
+    /**
+     * Runs the pending tasks closest to the camera until the frame budget is used up.
+     * @param cameraX The x-coordinate of the camera's focus.
+     */
+    public void run(float cameraX) {
+        long start = System.nanoTime();
+        do {
+            if (pending.isEmpty()) {
+                return;
+            }
+            takeClosest(cameraX).work.run();
+        } while (System.nanoTime() - start < budgetNanos);
+    }
+
+    /**
+     * Runs all the pending tasks, regardless of the budget. Used when the world is first created.
+     */
+    public void runAll() {
+        while (!pending.isEmpty()) {
+            takeClosest(0).work.run();
+        }
+    }
+
+    /**
+     * Returns the number of tasks waiting to run.
+     * @return The number of pending tasks.
+     */
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Removes and returns the pending task closest to the given x-coordinate.
+     * @param cameraX The x-coordinate of the camera's focus.
+     * @return The closest task.
+     */
+    private Task takeClosest(float cameraX) {
+        int closest = 0;
+        for (int i = 1; i < pending.size(); i++) {
+            if (Math.abs(pending.get(i).x - cameraX) < Math.abs(pending.get(closest).x - cameraX)) {
+                closest = i;
+            }
+        }
+        Task task = pending.get(closest);
+        pending.set(closest, pending.get(pending.size() - 1));
+        pending.remove(pending.size() - 1);
+        return task;
+    }
+}
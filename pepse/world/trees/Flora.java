@@ -1,46 +1,209 @@
 package pepse.world.trees;
 
+import danogl.GameObject;
 import danogl.util.Vector2;
+import pepse.util.HashRandom;
+import pepse.util.TimingWheel;
+import pepse.util.WorldEvents;
 import pepse.world.Constants;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Objects;
-import java.util.Random;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
  * A utility class for creating and managing flora (trees) in the game world.
  * This class generates trees at random positions within a specified range based on a given seed and ground
  * height.
-\ * @author: Batia
+ * Trees are tracked by the chunk they grow in, and forgotten when their chunk is released, so the flora
+ * only keeps the trees of resident chunks. With the canopy level of detail on, only the trees near the
+ * avatar have separate leaves and fruits, the others draw their tree top as a single canopy. Eaten fruits
+ * are kept in a fruit ledger, so they stay eaten until they regrow even if their chunk is rebuilt.
+ * @author: Batia
  * @see pepse.world.trees.Tree
  */
 public class Flora {
+    // How much further than the detail distance a detailed tree may get before it loses its detail, so
+    // trees at the edge do not switch back and forth.
+    private static final float DETAIL_HYSTERESIS = 2 * Constants.BLOCK_SIZE;
+    // Sizes on a 64-bit JVM with compressed references: a chunk's ArrayList with its map entry and its
+    // array header, and one slot of the list's array.
+    private static final int CHUNK_LIST_BYTES = 80;
+    private static final int LIST_SLOT_BYTES = 4;
     private final Function<Float, Float> groundHeightCallback;
-    private final HashSet<Tree> trees;
-    private final Random random;
+    private final HashMap<Integer, List<Tree>> treesByChunk;
+    private int residentTreeCount;
+    private int residentPartCount;
     private final int seed;
+    private final TreePools pools;
+    private final ArrayList<Tree> detailedTrees;
+    private boolean canopyLod;
+    private float detailDistance;
+    private Consumer<Tree> detailShownCallback;
+    private Consumer<Tree> detailHiddenCallback;
+    private final FruitLedger fruitLedger;
+    private BiConsumer<Tree, Fruit> fruitEatenCallback;
+    private BiConsumer<Tree, Fruit> fruitGrownCallback;
 
     /**
      * Constructs a Flora instance.
      * @param groundHeightCallback A callback function to get the ground height at a given x-coordinate.
      * @param seed The seed for generating random positions of trees.
+     * @param timers The world's timing wheel, for fruits to regrow on.
      */
-    public Flora(Function<Float, Float> groundHeightCallback, int seed) {
+    public Flora(Function<Float, Float> groundHeightCallback, int seed, TimingWheel timers) {
         this.groundHeightCallback = groundHeightCallback;
-        this.random = new Random();
-        trees = new HashSet<>();
+        this.treesByChunk = new HashMap<>();
         this.seed = seed;
+        this.pools = new TreePools(timers);
+        this.detailedTrees = new ArrayList<>();
+        this.fruitLedger = new FruitLedger(Constants.CYCLE_LENGTH, timers, this::regrowFruit);
+    }
+
+    /**
+     * Sets the callbacks that take eaten fruits out of the game and put regrown fruits back in. Fruits of
+     * planted trees are tracked by the fruit ledger only once these are set.
+     * @param fruitEatenCallback Called with the tree and the fruit when a fruit was eaten, before the fruit
+     *                           goes back to the pool.
+     * @param fruitGrownCallback Called with the tree and the fruit when an eaten fruit regrew on a detailed
+     *                           tree.
+     */
+    public void setFruitCallbacks(BiConsumer<Tree, Fruit> fruitEatenCallback,
+                                  BiConsumer<Tree, Fruit> fruitGrownCallback) {
+        this.fruitEatenCallback = fruitEatenCallback;
+        this.fruitGrownCallback = fruitGrownCallback;
+    }
+
+    /**
+     * Returns the ledger of eaten fruits.
+     * @return The fruit ledger.
+     */
+    public FruitLedger getFruitLedger() {
+        return fruitLedger;
+    }
+
+    /**
+     * Turns on the canopy level of detail. From now on, planted trees start with a canopy, and get their
+     * leaves and fruits only while they are within the detail distance of the point given to updateDetail.
+     * @param detailDistance The distance from the avatar within which trees are detailed. Should be smaller
+     *                       than the distance at which chunks leave the game.
+     * @param detailShownCallback Called after a tree got its leaves and fruits, to add them to the game.
+     * @param detailHiddenCallback Called before a tree gives up its leaves and fruits, to remove them from
+     *                             the game.
+     */
+    public void enableCanopyLod(float detailDistance, Consumer<Tree> detailShownCallback,
+                                Consumer<Tree> detailHiddenCallback) {
+        this.canopyLod = true;
+        this.detailDistance = detailDistance;
+        this.detailShownCallback = detailShownCallback;
+        this.detailHiddenCallback = detailHiddenCallback;
+    }
+
+    /**
+     * Gives leaves and fruits to the trees that came within the detail distance of the given point, and
+     * takes them from the trees that left it. Does nothing unless the canopy level of detail is on.
+     * @param centerX The x-coordinate of the avatar.
+     */
+    public void updateDetail(float centerX) {
+        if (!canopyLod) {
+            return;
+        }
+        for (int i = detailedTrees.size() - 1; i >= 0; i--) {
+            Tree tree = detailedTrees.get(i);
+            if (Math.abs(treeX(tree) - centerX) > detailDistance + DETAIL_HYSTERESIS) {
+                hideDetail(tree);
+                detailedTrees.set(i, detailedTrees.get(detailedTrees.size() - 1));
+                detailedTrees.remove(detailedTrees.size() - 1);
+            }
+        }
+        int firstChunk = Math.floorDiv((int) (centerX - detailDistance), Constants.CHUNK_WIDTH);
+        int lastChunk = Math.floorDiv((int) (centerX + detailDistance), Constants.CHUNK_WIDTH);
+        for (int chunkIndex = firstChunk; chunkIndex <= lastChunk; chunkIndex++) {
+            List<Tree> trees = treesByChunk.get(chunkIndex);
+            if (trees == null) {
+                continue;
+            }
+            for (Tree tree : trees) {
+                if (!tree.isDetailed() && Math.abs(treeX(tree) - centerX) <= detailDistance) {
+                    showDetail(tree);
+                    detailedTrees.add(tree);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of trees that currently have separate leaves and fruits.
+     * @return The number of detailed trees.
+     */
+    public int getDetailedTreeCount() {
+        return canopyLod ? detailedTrees.size() : residentTreeCount;
+    }
+
+    /**
+     * Returns the pools trees take their trunks, leaves and fruits from.
+     * @return The tree pools.
+     */
+    public TreePools getPools() {
+        return pools;
+    }
+
+    /**
+     * Returns the number of trees of the chunks that were not released yet.
+     * @return The number of resident trees.
+     */
+    public int getResidentTreeCount() {
+        return residentTreeCount;
+    }
+
+    /**
+     * Returns the number of GameObjects the resident trees are made of: trunks, canopies, leaves and fruits.
+     * @return The number of resident tree parts.
+     */
+    public int getResidentPartCount() {
+        return residentPartCount;
+    }
+
+    /**
+     * Returns the memory the resident trees keep for themselves, their sets of leaves and fruits and their
+     * canopy images, plus the lists that hold them by chunk. Walks every resident tree, so it is meant for
+     * periodic reporting, not for every frame.
+     * @return The retained bytes.
+     * @see pepse.world.trees.Tree#getRetainedBytes()
+     */
+    public long getRetainedBytes() {
+        long bytes = 0;
+        for (List<Tree> trees : treesByChunk.values()) {
+            bytes += CHUNK_LIST_BYTES + (long) trees.size() * LIST_SLOT_BYTES;
+            for (Tree tree : trees) {
+                bytes += tree.getRetainedBytes();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Gives a tree part that was removed from the game back to the pools, to be reused by the next trees.
+     * @param treePart A TreeTrunk, Leaf or Fruit created by this flora.
+     */
+    public void recycle(GameObject treePart) {
+        pools.recycle(treePart);
     }
 
     /**
      * Creates trees within the specified range.
-     * Trees are placed at random x-coordinates within the range based on the provided seed.
+     * Trees are placed at random x-coordinates within the range based on the provided seed, and are kept
+     * until the chunk they grow in is released.
      * @param minX The minimum x-coordinate of the range.
      * @param maxX The maximum x-coordinate of the range.
-     * @return A HashSet of Tree objects created within the specified range.
+     * @return A HashSet of the Tree objects created by this call.
      * @see pepse.world.trees.Tree
      */
     public HashSet<Tree> createInRange(int minX, int maxX){
+        HashSet<Tree> trees = new HashSet<>();
         for (int i = minX; i < maxX; i+= Constants.BLOCK_SIZE) {
             if (shouldPlantTree(i)){
 //                float curGroundHeight = groundHeightCallback.apply((float) i);
@@ -48,25 +211,184 @@ public class Flora {
 //                        (float) Math.floor(groundHeightCallback.apply((float) i));
                 float groundHeight = groundHeightCallback.apply((float)i);
 //                System.out.printf("tree: %f", groundHeight);
-                float bottomLeftY = (int) (Math.floor(groundHeightCallback.apply((float) i)
-                        / Constants.BLOCK_SIZE) + 1) * Constants.BLOCK_SIZE;
                 Vector2 bottomLeftCorner = new Vector2(i, groundHeight);
-                Tree curTree = new Tree(bottomLeftCorner, seed);
+                Tree curTree = new Tree(bottomLeftCorner, seed, pools);
+                track(Math.floorDiv(i, Constants.CHUNK_WIDTH), curTree);
                 trees.add(curTree);
             }
         }
         return trees;
     }
 
+    /**
+     * Decides which block columns of a chunk get a tree, using the same per-column seeded decision as
+     * createInRange, so a chunk always gets the same trees. Safe to call from any thread.
+     * @param chunkIndex The index of the chunk.
+     * @return For every block column of the chunk, from left to right, whether it has a tree.
+     */
+    public boolean[] treeColumnsInChunk(int chunkIndex) {
+        boolean[] treeColumns = new boolean[Constants.CHUNK_WIDTH / Constants.BLOCK_SIZE];
+        for (int column = 0; column < treeColumns.length; column++) {
+            treeColumns[column] = shouldPlantTree(chunkIndex * Constants.CHUNK_WIDTH
+                    + column * Constants.BLOCK_SIZE);
+        }
+        return treeColumns;
+    }
+
+    /**
+     * Creates a single tree at the given x-coordinate, standing on the ground. The tree is kept until its
+     * chunk is released.
+     * @param x The x-coordinate of the tree's trunk.
+     * @return The new tree.
+     */
+    public Tree plantTree(int x) {
+        float groundHeight = groundHeightCallback.apply((float) x);
+        FruitLedger ledger = fruitEatenCallback != null ? fruitLedger : null;
+        Tree tree = new Tree(new Vector2(x, groundHeight), seed, pools, !canopyLod, ledger);
+        track(Math.floorDiv(x, Constants.CHUNK_WIDTH), tree);
+        watchFruits(tree);
+        return tree;
+    }
+
+    /**
+     * Forgets every tree of a chunk that left residency. Detailed trees give up their leaves and fruits,
+     * the other parts of the trees should be recycled by the caller.
+     * @param chunkIndex The index of the released chunk.
+     */
+    public void releaseChunk(int chunkIndex) {
+        List<Tree> trees = treesByChunk.remove(chunkIndex);
+        if (trees == null) {
+            return;
+        }
+        for (Tree tree : trees) {
+            if (canopyLod && tree.isDetailed()) {
+                hideDetail(tree);
+                detailedTrees.remove(tree);
+            }
+            residentTreeCount--;
+            residentPartCount -= partCount(tree);
+        }
+    }
+
+    /**
+     * Gives a tree its leaves and fruits and lets the caller add them to the game.
+     * @param tree The tree.
+     */
+    private void showDetail(Tree tree) {
+        residentPartCount -= partCount(tree);
+        tree.showDetail();
+        residentPartCount += partCount(tree);
+        watchFruits(tree);
+        detailShownCallback.accept(tree);
+    }
+
+    /**
+     * Lets the flora take over the fruits of a tree once they are eaten, if fruit callbacks are set.
+     * @param tree The tree.
+     */
+    private void watchFruits(Tree tree) {
+        if (fruitEatenCallback == null) {
+            return;
+        }
+        for (Fruit fruit : tree.getFruits()) {
+            fruit.setEatenCallback(eaten -> eatFruit(tree, eaten));
+        }
+    }
+
+    /**
+     * Records an eaten fruit in the ledger, clears it from the tree's canopy, lets the caller remove it from
+     * the game, and gives it back to the pool.
+     * @param tree The tree the fruit grew on.
+     * @param fruit The eaten fruit.
+     */
+    private void eatFruit(Tree tree, Fruit fruit) {
+        WorldEvents.FruitEaten event = new WorldEvents.FruitEaten();
+        event.begin();
+        event.chunkIndex = tree.getChunkIndex();
+        event.slot = fruit.getSlot();
+        fruitLedger.markEaten(tree.getChunkIndex(), fruit.getSlot());
+        tree.updateCanopyFruit(fruit.getSlot());
+        fruitEatenCallback.accept(tree, fruit);
+        tree.removeFruit(fruit);
+        residentPartCount--;
+        event.eatenCount = fruitLedger.getEatenCount();
+        event.commit();
+    }
+
+    /**
+     * Puts a regrown fruit back on its tree, if the tree is resident: into its canopy, and as a Fruit if the
+     * tree is detailed. Otherwise the fruit is created the next time its tree is planted.
+     * @param chunkIndex The index of the fruit's chunk.
+     * @param slot The slot of the fruit in the chunk.
+     */
+    private void regrowFruit(int chunkIndex, int slot) {
+        List<Tree> trees = treesByChunk.get(chunkIndex);
+        if (trees == null) {
+            return;
+        }
+        for (Tree tree : trees) {
+            if (tree.hasSlot(slot)) {
+                tree.updateCanopyFruit(slot);
+                Fruit fruit = tree.regrowFruit(slot);
+                if (fruit != null) {
+                    residentPartCount++;
+                    fruit.setEatenCallback(eaten -> eatFruit(tree, eaten));
+                    fruitGrownCallback.accept(tree, fruit);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Lets the caller remove the leaves and fruits of a tree from the game, and gives them back to the pools.
+     * @param tree The tree.
+     */
+    private void hideDetail(Tree tree) {
+        detailHiddenCallback.accept(tree);
+        residentPartCount -= partCount(tree);
+        tree.hideDetail();
+        residentPartCount += partCount(tree);
+    }
+
+    /**
+     * Returns the x-coordinate of a tree's trunk.
+     * @param tree The tree.
+     * @return The x-coordinate of the tree.
+     */
+    private static float treeX(Tree tree) {
+        return tree.getTrunk().getTopLeftCorner().x();
+    }
+
+    /**
+     * Keeps a new tree under the chunk it grows in.
+     * @param chunkIndex The index of the chunk.
+     * @param tree The tree.
+     */
+    private void track(int chunkIndex, Tree tree) {
+        treesByChunk.computeIfAbsent(chunkIndex, index -> new ArrayList<>()).add(tree);
+        residentTreeCount++;
+        residentPartCount += partCount(tree);
+    }
+
+    /**
+     * Counts the GameObjects a tree is made of.
+     * @param tree The tree.
+     * @return The number of its trunk, canopy, leaves and fruits.
+     */
+    private static int partCount(Tree tree) {
+        int canopy = tree.getCanopy() != null ? 1 : 0;
+        return 1 + canopy + tree.getLeaves().size() + tree.getFruits().size();
+    }
+
     /**
      * Determines whether a tree should be planted at the given x-coordinate.
-     * The decision is based on a random value generated using the seed.
+     * The decision is based on a random value hashed from the seed and the coordinate.
      * @param i The x-coordinate.
      * @return True if a tree should be planted, false otherwise.
      */
     private boolean shouldPlantTree(int i){
-        Random random = new Random(Objects.hash(i, seed));
-        int answer = random.nextInt(Constants.PORTABILITY_BOUND);
+        int answer = HashRandom.nextInt(seed, i, HashRandom.TREE, Constants.PORTABILITY_BOUND);
         return (answer == 1);
     }
 }
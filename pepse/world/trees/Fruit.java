@@ -5,6 +5,7 @@ import danogl.collisions.Collision;
 import danogl.components.ScheduledTask;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
+import pepse.util.TimingWheel;
 import pepse.world.Constants;
 import java.util.function.Consumer;
 
@@ -17,7 +18,11 @@ import java.util.function.Consumer;
 public class Fruit extends GameObject {
     private final float ENERGY_TO_ADD_WHEN_EATEN = 10f;
     private Consumer<Float> updateEnergyCallback;
+    private Consumer<Fruit> eatenCallback;
     private boolean ateMe;
+    private int slot = -1;
+    private final TimingWheel timers;
+    private TimingWheel.Timer reappearTimer;
 
     /**
      * Construct a new GameObject instance.
@@ -27,7 +32,20 @@ public class Fruit extends GameObject {
      *                      the GameObject will not be rendered.
      */
     public Fruit(Vector2 topLeftCorner, Renderable renderable) {
+        this(topLeftCorner, renderable, null);
+    }
+
+    /**
+     * Construct a new Fruit whose reappearance is scheduled on a timing wheel.
+     * @param topLeftCorner Position of the object, in window coordinates (pixels).
+     *                      Note that (0,0) is the top-left corner of the window.
+     * @param renderable    The renderable representing the object. Can be null, in which case
+     *                      the GameObject will not be rendered.
+     * @param timers The world's timing wheel, or null to schedule with a ScheduledTask component.
+     */
+    public Fruit(Vector2 topLeftCorner, Renderable renderable, TimingWheel timers) {
         super(topLeftCorner, Vector2.ONES.mult(Constants.BLOCK_SIZE), renderable);
+        this.timers = timers;
         setTag(Constants.FRUIT_TAG);
 //        this.updateEnergyCallback = updateEnergyCallback;
     }
@@ -40,6 +58,49 @@ public class Fruit extends GameObject {
         this.updateEnergyCallback = updateEnergyCallback;
     }
 
+    /**
+     * Registers a callback that takes over an eaten fruit. Without one, the fruit hides itself and comes
+     * back after a cycle.
+     * @param eatenCallback Called with the fruit once it is eaten.
+     */
+    public void setEatenCallback(Consumer<Fruit> eatenCallback) {
+        this.eatenCallback = eatenCallback;
+    }
+
+    /**
+     * Returns the fruit's slot in the fruit ledger of its chunk.
+     * @return The slot, or -1 if the fruit has none.
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Sets the fruit's slot in the fruit ledger of its chunk.
+     * @param slot The slot.
+     */
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
+    /**
+     * Resets a pooled fruit so it can be placed in a new tree top, visible and collectible. A pending
+     * reappearance of its previous life is cancelled.
+     * @param topLeftCorner The new position of the fruit in window coordinates (pixels).
+     * @param renderable The new renderable of the fruit.
+     */
+    public void reset(Vector2 topLeftCorner, Renderable renderable) {
+        setTopLeftCorner(topLeftCorner);
+        renderer().setRenderable(renderable);
+        eatenCallback = null;
+        slot = -1;
+        if (timers != null) {
+            timers.cancel(reappearTimer);
+            reappearTimer = null;
+        }
+        resetFruit();
+    }
+
     /**
      * Resets the fruit's state, making it visible and collectible again.
      */
@@ -50,8 +111,8 @@ public class Fruit extends GameObject {
 
     /**
      * Handles collision events with other game objects. If the colliding object is the avatar and the fruit
-     * has not been collected yet, it updates the avatar's energy, makes the fruit invisible, and schedules
-     * it to reappear after a certain time.
+     * has not been collected yet, it updates the avatar's energy and hands the fruit to its eaten callback.
+     * Without a callback, it makes the fruit invisible and schedules it to reappear after a certain time.
      * @param other The other GameObject involved in the collision.
      * @param collision Details about the collision.
      */
@@ -61,9 +122,17 @@ public class Fruit extends GameObject {
         if (other.getTag().equals(Constants.AVATAR_TAG) && !ateMe){
             ateMe = true;
             updateEnergyCallback.accept(ENERGY_TO_ADD_WHEN_EATEN);
+            if (eatenCallback != null) {
+                eatenCallback.accept(this);
+                return;
+            }
             renderer().setOpaqueness(0f);
-            new ScheduledTask(this, Constants.CYCLE_LENGTH,
-                    false, this::resetFruit);
+            if (timers != null) {
+                reappearTimer = timers.schedule(Constants.CYCLE_LENGTH, this::resetFruit);
+            } else {
+                new ScheduledTask(this, Constants.CYCLE_LENGTH,
+                        false, this::resetFruit);
+            }
         }
     }
 }
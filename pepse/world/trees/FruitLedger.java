@@ -0,0 +1,129 @@
+package pepse.world.trees;
+
+import pepse.util.TimingWheel;
+import pepse.world.Constants;
+
+import java.util.HashMap;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Remembers which fruits of the world were eaten and when, independently of the Fruit objects, so the
+ * state survives chunks leaving the game. Every chunk has a fixed number of fruit slots, one per tree top
+ * cell of every block column. Only chunks with eaten fruits take memory: a bitset of the eaten slots and
+ * the time each one was eaten. Regrowth is scheduled on the world's timing wheel; when a fruit regrows, the
+ * ledger forgets it and reports it.
+ * @author: Batia
+ * @see pepse.world.trees.Fruit
+ */
+public class FruitLedger {
+    /** The number of fruit slots in a chunk. */
+    public static final int SLOTS_PER_CHUNK =
+            Constants.CHUNK_WIDTH / Constants.BLOCK_SIZE * Tree.SLOTS_PER_TREE;
+    private static final int BITS_PER_WORD = 64;
+    private final float regrowTime;
+    private final TimingWheel timers;
+    private final ObjIntConsumer<Integer> regrowCallback;
+    private final HashMap<Integer, ChunkFruits> chunks;
+    private int eatenCount;
+
+    /**
+     * The eaten fruits of a single chunk.
+     */
+    private static class ChunkFruits {
+        private final long[] eaten = new long[(SLOTS_PER_CHUNK + BITS_PER_WORD - 1) / BITS_PER_WORD];
+        private final float[] eatenAt = new float[SLOTS_PER_CHUNK];
+        private int count;
+    }
+
+    /**
+     * Constructs an empty FruitLedger.
+     * @param regrowTime The time, in seconds, it takes an eaten fruit to regrow.
+     * @param timers The timing wheel regrowth is scheduled on.
+     * @param regrowCallback Called with the chunk index and the slot of every fruit that regrew.
+     */
+    public FruitLedger(float regrowTime, TimingWheel timers, ObjIntConsumer<Integer> regrowCallback) {
+        this.regrowTime = regrowTime;
+        this.timers = timers;
+        this.regrowCallback = regrowCallback;
+        this.chunks = new HashMap<>();
+    }
+
+    /**
+     * Returns the number of fruits that are eaten and did not regrow yet.
+     * @return The number of eaten fruits.
+     */
+    public int getEatenCount() {
+        return eatenCount;
+    }
+
+    /**
+     * Returns the number of chunks holding eaten fruits.
+     * @return The number of chunks the ledger keeps state for.
+     */
+    public int getTrackedChunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * Returns whether the fruit of a slot can be created, meaning it was not eaten or it already regrew.
+     * @param chunkIndex The index of the chunk.
+     * @param slot The slot of the fruit in the chunk.
+     * @return True if the fruit is available.
+     */
+    public boolean isAvailable(int chunkIndex, int slot) {
+        ChunkFruits fruits = chunks.get(chunkIndex);
+        return fruits == null || (fruits.eaten[slot / BITS_PER_WORD] & (1L << slot)) == 0;
+    }
+
+    /**
+     * Records that the fruit of a slot was eaten now.
+     * @param chunkIndex The index of the chunk.
+     * @param slot The slot of the fruit in the chunk.
+     */
+    public void markEaten(int chunkIndex, int slot) {
+        if (!isAvailable(chunkIndex, slot)) {
+            return;
+        }
+        ChunkFruits fruits = chunks.computeIfAbsent(chunkIndex, index -> new ChunkFruits());
+        fruits.eaten[slot / BITS_PER_WORD] |= 1L << slot;
+        fruits.eatenAt[slot] = timers.getTime();
+        fruits.count++;
+        eatenCount++;
+        timers.schedule(regrowTime, () -> regrow(chunkIndex, slot));
+    }
+
+    /**
+     * Returns the time a fruit was eaten at.
+     * @param chunkIndex The index of the chunk.
+     * @param slot The slot of the fruit in the chunk.
+     * @return The time on the timing wheel, in seconds, or -1 if the fruit is available.
+     */
+    public float getEatenTime(int chunkIndex, int slot) {
+        return isAvailable(chunkIndex, slot) ? -1 : chunks.get(chunkIndex).eatenAt[slot];
+    }
+
+    /**
+     * Forgets an eaten fruit once it regrew and reports it.
+     * @param chunkIndex The index of the chunk.
+     * @param slot The slot of the fruit in the chunk.
+     */
+    private void regrow(int chunkIndex, int slot) {
+        ChunkFruits fruits = chunks.get(chunkIndex);
+        fruits.eaten[slot / BITS_PER_WORD] &= ~(1L << slot);
+        fruits.count--;
+        eatenCount--;
+        if (fruits.count == 0) {
+            chunks.remove(chunkIndex);
+        }
+        regrowCallback.accept(chunkIndex, slot);
+    }
+
+    /**
+     * Returns a readable summary of the ledger.
+     * @return The number of eaten fruits and of chunks holding them.
+     */
+    @Override
+    public String toString() {
+        return "FruitLedger[eaten=" + eatenCount + ", chunks=" + chunks.size() + "]";
+    }
+}
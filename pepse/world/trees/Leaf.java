@@ -1,21 +1,21 @@
 package pepse.world.trees;
 
 import danogl.GameObject;
-import danogl.components.ScheduledTask;
-import danogl.components.Transition;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 import pepse.world.Constants;
 import java.awt.*;
-import java.util.Random;
 
 /**
- * Represents a leaf in the game world. The leaf can move and rotate slightly to simulate a natural effect.
+ * Represents a leaf in the game world. The leaf can move and rotate slightly to simulate a natural effect,
+ * driven by the shared LeafSway.
  * @author: Batia
  * @see pepse.world.trees.Tree
+ * @see pepse.world.trees.LeafSway
  */
 public class Leaf extends GameObject {
     private static final Color BASIC_LEAF_COLOR = new Color(50, 200, 30);
+    private int swayIndex = -1;
     /**
      * Construct a new GameObject instance.
      * @param topLeftCorner Position of the object, in window coordinates (pixels).
@@ -24,33 +24,32 @@ public class Leaf extends GameObject {
      */
     public Leaf(Vector2 topLeftCorner, Renderable renderable) {
         super(topLeftCorner, Vector2.ONES.mult(Constants.BLOCK_SIZE), renderable);
-        float time = getRandomTime();
-        new ScheduledTask(this, time, false, this::moveLeaf);
         setTag(Constants.LEAF_TAG);
     }
 
     /**
-     * Returns a random time interval for scheduling the leaf's movement.
-     * @return A random float representing time in seconds.
+     * Resets a pooled leaf so it can be placed in a new tree top.
+     * @param topLeftCorner The new position of the leaf in window coordinates (pixels).
+     * @param renderable The new renderable of the leaf.
      */
-    private float getRandomTime(){
-        Random rand = new Random();
-        return rand.nextFloat(4f);
+    public void reset(Vector2 topLeftCorner, Renderable renderable) {
+        setTopLeftCorner(topLeftCorner);
+        renderer().setRenderable(renderable);
     }
 
     /**
-     * Schedules the leaf's movement and rotation transitions to simulate a natural swaying effect.
+     * Returns the position of the leaf in the LeafSway that drives it.
+     * @return The index of the leaf, or -1 if it is not swaying.
      */
-    private void moveLeaf(){
-        Vector2 dim = Vector2.ONES.mult(Constants.BLOCK_SIZE);
-        new Transition<Float>(this,
-                (Float f) -> this.setDimensions(dim.mult(f)),
-                1f, 0.9f, Transition.LINEAR_INTERPOLATOR_FLOAT, 2f,
-                Transition.TransitionType.TRANSITION_BACK_AND_FORTH, null);
+    int getSwayIndex() {
+        return swayIndex;
+    }
 
-        new Transition<Float>(this,
-                (Float f) -> this.renderer().setRenderableAngle(f),
-                -15f, 15f, Transition.LINEAR_INTERPOLATOR_FLOAT, 1f,
-                Transition.TransitionType.TRANSITION_BACK_AND_FORTH, null);
+    /**
+     * Sets the position of the leaf in the LeafSway that drives it.
+     * @param swayIndex The index of the leaf, or -1 if it is not swaying.
+     */
+    void setSwayIndex(int swayIndex) {
+        this.swayIndex = swayIndex;
     }
 }
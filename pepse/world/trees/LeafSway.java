@@ -0,0 +1,125 @@
+package pepse.world.trees;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import pepse.util.HashRandom;
+import pepse.world.Constants;
+
+import java.util.Arrays;
+
+/**
+ * Drives the swaying of all leaves from a single clock. Once added to the game, it updates the angle and
+ * size of every registered leaf each frame, in one loop, instead of every leaf running its own
+ * transitions. Each leaf starts swaying after its own delay, like a leaf with a scheduled task would. The
+ * delay is keyed on the world seed and the leaf's cell, as the leaf's color is.
+ * @author: Batia
+ * @see pepse.world.trees.Leaf
+ */
+public class LeafSway extends GameObject {
+    private static final float MAX_SWAY_DELAY = 4f;
+    private static final float MIN_ANGLE = -15f;
+    private static final float MAX_ANGLE = 15f;
+    private static final float ANGLE_CYCLE_TIME = 1f;
+    private static final float MIN_SCALE = 0.9f;
+    private static final float SCALE_CYCLE_TIME = 2f;
+    private static final int SIZE_STEPS = 20;
+    private static final int INITIAL_CAPACITY = 256;
+    private final Vector2[] sizes;
+    private Leaf[] leaves;
+    private float[] startTimes;
+    private int count;
+    private float clock;
+
+    /**
+     * Constructs a new LeafSway with no leaves.
+     */
+    public LeafSway() {
+        super(Vector2.ZERO, Vector2.ZERO, null);
+        this.leaves = new Leaf[INITIAL_CAPACITY];
+        this.startTimes = new float[INITIAL_CAPACITY];
+        this.sizes = new Vector2[SIZE_STEPS + 1];
+        Vector2 leafSize = Vector2.ONES.mult(Constants.BLOCK_SIZE);
+        for (int i = 0; i <= SIZE_STEPS; i++) {
+            sizes[i] = leafSize.mult(1f - (1f - MIN_SCALE) * i / SIZE_STEPS);
+        }
+    }
+
+    /**
+     * Returns the number of leaves currently swaying.
+     * @return The number of registered leaves.
+     */
+    public int getLeafCount() {
+        return count;
+    }
+
+    /**
+     * Starts swaying a leaf after a delay hashed from the world seed and the leaf's cell, so a leaf always
+     * gets the same delay, whatever order leaves are added in.
+     * @param leaf The leaf, must not be registered already.
+     * @param seed The world seed.
+     * @param cell The coordinate key of the leaf's cell.
+     */
+    public void add(Leaf leaf, int seed, long cell) {
+        if (count == leaves.length) {
+            leaves = Arrays.copyOf(leaves, count * 2);
+            startTimes = Arrays.copyOf(startTimes, count * 2);
+        }
+        leaf.setSwayIndex(count);
+        leaves[count] = leaf;
+        startTimes[count] = clock + HashRandom.nextFloat(seed, cell, HashRandom.LEAF_SWAY, MAX_SWAY_DELAY);
+        count++;
+    }
+
+    /**
+     * Stops swaying a leaf and restores its resting angle and size.
+     * @param leaf The leaf. Ignored if it is not registered.
+     */
+    public void remove(Leaf leaf) {
+        int index = leaf.getSwayIndex();
+        if (index < 0 || index >= count || leaves[index] != leaf) {
+            return;
+        }
+        count--;
+        leaves[index] = leaves[count];
+        startTimes[index] = startTimes[count];
+        leaves[index].setSwayIndex(index);
+        leaves[count] = null;
+        leaf.setSwayIndex(-1);
+        leaf.renderer().setRenderableAngle(0f);
+        leaf.setDimensions(sizes[0]);
+    }
+
+    /**
+     * Advances the clock and updates the angle and size of every swaying leaf. The angle moves back and
+     * forth between MIN_ANGLE and MAX_ANGLE, and the size between full and MIN_SCALE of a block.
+     * @param deltaTime The time elapsed, in seconds, since the last frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        clock += deltaTime;
+        for (int i = 0; i < count; i++) {
+            float time = clock - startTimes[i];
+            if (time < 0) {
+                continue;
+            }
+            Leaf leaf = leaves[i];
+            float angle = MIN_ANGLE + (MAX_ANGLE - MIN_ANGLE) * triangle(time / ANGLE_CYCLE_TIME);
+            leaf.renderer().setRenderableAngle(angle);
+            int sizeStep = Math.round(triangle(time / SCALE_CYCLE_TIME) * SIZE_STEPS);
+            if (leaf.getDimensions() != sizes[sizeStep]) {
+                leaf.setDimensions(sizes[sizeStep]);
+            }
+        }
+    }
+
+    /**
+     * A triangle wave going from 0 to 1 and back to 0 every 2 time units, like a back and forth transition.
+     * @param time The time, in units of a single one-way transition.
+     * @return The value of the wave, in [0, 1].
+     */
+    private static float triangle(float time) {
+        float phase = time % 2f;
+        return phase < 1f ? phase : 2f - phase;
+    }
+}
@@ -1,15 +1,18 @@
 package pepse.world.trees;
 
+import danogl.GameObject;
 import danogl.gui.rendering.OvalRenderable;
 import danogl.gui.rendering.RectangleRenderable;
 import danogl.util.Vector2;
 import pepse.util.ColorSupplier;
+import pepse.util.HashRandom;
+import pepse.util.RenderablePalette;
+import pepse.world.CellImageRenderable;
 import pepse.world.Constants;
 
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.util.HashSet;
-import java.util.Objects;
-import java.util.Random;
 
 /**
  * Represents a tree in the game world. A tree consists of a trunk, leaves, and fruits,
@@ -22,17 +25,39 @@ import java.util.Random;
  * @see pepse.world.trees.TreeTrunk
  */
 public class Tree {
+    /** The number of cells in a tree top, each holding at most one fruit. */
+    static final int SLOTS_PER_TREE = (Constants.TREE_TOP_SIZE / Constants.BLOCK_SIZE)
+            * (Constants.TREE_TOP_SIZE / Constants.BLOCK_SIZE);
     private static final Color TRUNK_BASIC_COLOR = new Color(100, 50, 20);
     private static final Color BASIC_LEAF_COLOR = new Color(50, 200, 30);
-    private Color FRUIT_COLOR = new Color(163, 13, 209);
+    private static final Color FRUIT_COLOR = new Color(163, 13, 209);
+    private static final RenderablePalette LEAF_RENDERABLES =
+            new RenderablePalette(BASIC_LEAF_COLOR, RectangleRenderable::new);
+    private static final RenderablePalette FRUIT_RENDERABLES =
+            new RenderablePalette(FRUIT_COLOR, OvalRenderable::new);
     private static final String LEAF = "leaf";
     private static final String FRUIT = "fruit";
+    private static final int TRANSPARENT = 0;
+    // Sizes of the tree's own state on a 64-bit JVM with compressed references: the Tree object with its
+    // fields, an empty HashSet with its HashMap, one HashMap node, and one slot of a HashMap table.
+    private static final int TREE_BYTES = 64;
+    private static final int SET_BYTES = 64;
+    private static final int SET_ENTRY_BYTES = 32;
+    private static final int TABLE_SLOT_BYTES = 4;
+    private static final int MIN_TABLE_LENGTH = 16;
     private Vector2 bottomLeftCornerTrunk;
     private Vector2 topLeftCornerTrunk;
     private int seed;
+    private final TreePools pools;
     private HashSet<Leaf> leaves;
     private TreeTrunk trunk;
     private HashSet<Fruit> fruits;
+    private GameObject canopy;
+    private BufferedImage canopyImage;
+    private boolean detailed;
+    private final FruitLedger fruitLedger;
+    private final int chunkIndex;
+    private final int slotBase;
 
 // GETTERS //
     /**
@@ -59,23 +84,202 @@ public class Tree {
         return fruits;
     }
 
+    /**
+     * Returns the baked image of the tree top, drawn while the tree has no leaves and fruits.
+     * @return The canopy GameObject, or null if the tree is always detailed.
+     */
+    public GameObject getCanopy() {
+        return canopy;
+    }
+
+    /**
+     * Returns the index of the chunk the tree grows in.
+     * @return The chunk index.
+     */
+    public int getChunkIndex() {
+        return chunkIndex;
+    }
+
+    /**
+     * Returns whether a fruit slot of the tree's chunk belongs to this tree.
+     * @param slot The fruit slot in the chunk.
+     * @return True if the slot is one of the tree top's cells.
+     */
+    public boolean hasSlot(int slot) {
+        return slot >= slotBase && slot < slotBase + SLOTS_PER_TREE;
+    }
+
+    /**
+     * Returns the memory the tree keeps for itself: the Tree object, the sets of its leaves and fruits with
+     * their tables and entries, and the pixels of its canopy image. The trunk, leaves, fruits and canopy are
+     * pooled GameObjects and are not counted.
+     * @return The retained bytes.
+     */
+    public long getRetainedBytes() {
+        long bytes = TREE_BYTES + setBytes(leaves.size()) + setBytes(fruits.size());
+        if (canopyImage != null) {
+            bytes += (long) canopyImage.getWidth() * canopyImage.getHeight() * Integer.BYTES;
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns whether the tree top is made of separate leaves and fruits.
+     * @return True if the tree has its leaves and fruits.
+     */
+    public boolean isDetailed() {
+        return detailed;
+    }
+
 // CONSTRUCTOR
     /**
      * Constructs a Tree object at the specified bottom-left corner & initializes it using the provided seed
      * @param bottomLeftCorner The bottom-left corner position of the tree trunk.
      * @param seed The seed for generating random elements of the tree.
+     * @param pools The pools the trunk, leaves and fruits of the tree are taken from.
+     */
+    public Tree(Vector2 bottomLeftCorner, int seed, TreePools pools) {
+        this(bottomLeftCorner, seed, pools, true);
+    }
+
+    /**
+     * Constructs a Tree object at the specified bottom-left corner & initializes it using the provided seed.
+     * A tree that is not detailed gets a single baked canopy in place of its leaves and fruits, and can be
+     * switched between the two with showDetail and hideDetail.
+     * @param bottomLeftCorner The bottom-left corner position of the tree trunk.
+     * @param seed The seed for generating random elements of the tree.
+     * @param pools The pools the trunk, leaves, fruits and canopy of the tree are taken from.
+     * @param detailed True to create the leaves and fruits, false to create the canopy instead.
      */
-    public Tree(Vector2 bottomLeftCorner, int seed) {
+    public Tree(Vector2 bottomLeftCorner, int seed, TreePools pools, boolean detailed) {
+        this(bottomLeftCorner, seed, pools, detailed, null);
+    }
+
+    /**
+     * Constructs a Tree object at the specified bottom-left corner & initializes it using the provided seed.
+     * Fruits the ledger lists as eaten are not created.
+     * @param bottomLeftCorner The bottom-left corner position of the tree trunk.
+     * @param seed The seed for generating random elements of the tree.
+     * @param pools The pools the trunk, leaves, fruits and canopy of the tree are taken from.
+     * @param detailed True to create the leaves and fruits, false to create the canopy instead.
+     * @param fruitLedger The ledger of eaten fruits, or null if every fruit is always available.
+     */
+    public Tree(Vector2 bottomLeftCorner, int seed, TreePools pools, boolean detailed,
+                FruitLedger fruitLedger) {
         this.bottomLeftCornerTrunk = bottomLeftCorner;
+        this.fruitLedger = fruitLedger;
+        int trunkX = (int) bottomLeftCorner.x();
+        this.chunkIndex = Math.floorDiv(trunkX, Constants.CHUNK_WIDTH);
+        int column = (trunkX - chunkIndex * Constants.CHUNK_WIDTH) / Constants.BLOCK_SIZE;
+        this.slotBase = column * SLOTS_PER_TREE;
 //        this.treeTopSize = Constans.TREE_TRUNK_HEIGHT / 2f;
         this.seed = seed;
+        this.pools = pools;
         this.leaves = new HashSet<>();
         this.fruits = new HashSet<>();
         createTreeTrunk();
-        createTreeTop();
+        if (detailed) {
+            createTreeTop();
+        } else {
+            createCanopy();
+        }
+        this.detailed = detailed;
 //        System.out.println("\nend of tree\n");
     }
 
+    /**
+     * Replaces the canopy with separate leaves and fruits. The caller adds them to the game.
+     */
+    public void showDetail() {
+        if (detailed) {
+            return;
+        }
+        createTreeTop();
+        canopy.renderer().setOpaqueness(0f);
+        detailed = true;
+    }
+
+    /**
+     * Creates the fruit of a slot again after it regrew, if the tree is detailed and the slot's cell holds
+     * a fruit. The caller adds it to the game.
+     * @param slot The fruit slot in the tree's chunk.
+     * @return The new fruit, or null if none was created.
+     */
+    public Fruit regrowFruit(int slot) {
+        if (!detailed || !hasSlot(slot)) {
+            return null;
+        }
+        for (Fruit fruit : fruits) {
+            if (fruit.getSlot() == slot) {
+                return null;
+            }
+        }
+        int treeTopHalfSize = Constants.TREE_TOP_SIZE / 2;
+        int cellsPerSide = Constants.TREE_TOP_SIZE / Constants.BLOCK_SIZE;
+        int i = (slot - slotBase) / cellsPerSide * Constants.BLOCK_SIZE - treeTopHalfSize;
+        int j = (slot - slotBase) % cellsPerSide * Constants.BLOCK_SIZE - treeTopHalfSize;
+        if (!FRUIT.equals(whatToCreate(i + j))) {
+            return null;
+        }
+        Fruit fruit = createFruit(trunk.getTopLeftCorner().add(Vector2.of(i, j)));
+        fruit.setSlot(slot);
+        fruits.add(fruit);
+        return fruit;
+    }
+
+    /**
+     * Draws the fruit of a slot into the canopy image if the fruit is available, or clears its cell if it was
+     * eaten, so the canopy matches the fruits the tree would have when detailed. Does nothing for trees
+     * without a canopy or for cells that hold no fruit.
+     * @param slot The fruit slot in the tree's chunk.
+     */
+    public void updateCanopyFruit(int slot) {
+        if (canopyImage == null || !hasSlot(slot)) {
+            return;
+        }
+        int treeTopHalfSize = Constants.TREE_TOP_SIZE / 2;
+        int cellsPerSide = Constants.TREE_TOP_SIZE / Constants.BLOCK_SIZE;
+        int i = (slot - slotBase) / cellsPerSide * Constants.BLOCK_SIZE - treeTopHalfSize;
+        int j = (slot - slotBase) % cellsPerSide * Constants.BLOCK_SIZE - treeTopHalfSize;
+        if (!FRUIT.equals(whatToCreate(i + j))) {
+            return;
+        }
+        int rgb = isFruitAvailable(slot) ? canopyFruitColor(i, j).getRGB() : TRANSPARENT;
+        canopyImage.setRGB((i + treeTopHalfSize) / Constants.BLOCK_SIZE,
+                (j + treeTopHalfSize) / Constants.BLOCK_SIZE, rgb);
+    }
+
+    /**
+     * Takes an eaten fruit out of the tree and gives it back to the pool. The caller removes it from the
+     * game first.
+     * @param fruit The fruit.
+     */
+    public void removeFruit(Fruit fruit) {
+        if (fruits.remove(fruit)) {
+            pools.recycle(fruit);
+        }
+    }
+
+    /**
+     * Gives the leaves and fruits back to the pools and shows the canopy again. The caller removes them
+     * from the game first. Trees without a canopy are left as they are.
+     */
+    public void hideDetail() {
+        if (!detailed || canopy == null) {
+            return;
+        }
+        for (Leaf leaf : leaves) {
+            pools.recycle(leaf);
+        }
+        for (Fruit fruit : fruits) {
+            pools.recycle(fruit);
+        }
+        leaves.clear();
+        fruits.clear();
+        canopy.renderer().setOpaqueness(1f);
+        detailed = false;
+    }
+
 // HELPERS
 
     /**
@@ -84,7 +288,8 @@ public class Tree {
     private void createTreeTrunk(){
         float topLeftCornerY = bottomLeftCornerTrunk.y() - Constants.TREE_TRUNK_HEIGHT;
         Vector2 topLeftCornerTrunk = new Vector2(bottomLeftCornerTrunk.x(), topLeftCornerY);
-        this.trunk = new TreeTrunk(topLeftCornerTrunk, Constants.TREE_TRUNK_HEIGHT);
+        this.trunk = pools.getTrunkPool().obtain();
+        trunk.reset(topLeftCornerTrunk, seed);
     }
 
     /**
@@ -108,7 +313,12 @@ public class Tree {
                         leaves.add(newLeaf);
                         break;
                     case FRUIT:
+                        int slot = slotOf(i, j);
+                        if (!isFruitAvailable(slot)) {
+                            break;
+                        }
                         Fruit newFruit = createFruit(curPosition);
+                        newFruit.setSlot(slot);
                         fruits.add(newFruit);
 //                        System.out.printf("%d, %d - fruit\n", i, j);
                         break;
@@ -119,14 +329,73 @@ public class Tree {
         }
     }
 
+    /**
+     * Creates the canopy: one object drawing the whole tree top from an image with a pixel per cell, in
+     * the same colors its leaves and fruits would have. Cells of fruits the ledger lists as eaten are left
+     * empty.
+     */
+    private void createCanopy(){
+        int treeTopHalfSize = Constants.TREE_TOP_SIZE / 2;
+        int cells = Constants.TREE_TOP_SIZE / Constants.BLOCK_SIZE;
+        BufferedImage image = new BufferedImage(cells, cells, BufferedImage.TYPE_INT_ARGB);
+        float trunkX = trunk.getTopLeftCorner().x();
+        float trunkY = trunk.getTopLeftCorner().y();
+        for (int i = -treeTopHalfSize; i < treeTopHalfSize ; i+= Constants.BLOCK_SIZE) {
+            for (int j = -treeTopHalfSize; j < treeTopHalfSize; j+= Constants.BLOCK_SIZE) {
+                String toCreate = whatToCreate( i + j);
+                if (toCreate == null){
+                    break;
+                }
+                Color color;
+                if (toCreate.equals(LEAF)) {
+                    long cell = cellOf(trunkX + i, trunkY + j);
+                    color = ColorSupplier.approximateColor(BASIC_LEAF_COLOR, seed, cell,
+                            HashRandom.LEAF_COLOR);
+                } else if (isFruitAvailable(slotOf(i, j))) {
+                    color = canopyFruitColor(i, j);
+                } else {
+                    continue;
+                }
+                image.setRGB((i + treeTopHalfSize) / Constants.BLOCK_SIZE,
+                        (j + treeTopHalfSize) / Constants.BLOCK_SIZE, color.getRGB());
+            }
+        }
+        canopy = pools.getCanopyPool().obtain();
+        canopy.setTopLeftCorner(Vector2.of(trunkX - treeTopHalfSize, trunkY - treeTopHalfSize));
+        canopy.setDimensions(Vector2.of(cells * Constants.BLOCK_SIZE, cells * Constants.BLOCK_SIZE));
+        canopyImage = image;
+        canopy.renderer().setRenderable(new CellImageRenderable(image));
+        canopy.renderer().setOpaqueness(1f);
+    }
+
+    /**
+     * Returns whether the fruit of a slot can be created, meaning the ledger does not list it as eaten.
+     * @param slot The fruit slot in the tree's chunk.
+     * @return True if the fruit is available.
+     */
+    private boolean isFruitAvailable(int slot) {
+        return fruitLedger == null || fruitLedger.isAvailable(chunkIndex, slot);
+    }
+
+    /**
+     * Returns the color of the fruit of a tree top cell, the same its Fruit object would have.
+     * @param i The horizontal offset of the cell from the top of the trunk.
+     * @param j The vertical offset of the cell from the top of the trunk.
+     * @return The color of the fruit.
+     */
+    private Color canopyFruitColor(int i, int j) {
+        Vector2 topOfTrunk = trunk.getTopLeftCorner();
+        long cell = cellOf(topOfTrunk.x() + i, topOfTrunk.y() + j);
+        return ColorSupplier.approximateColor(FRUIT_COLOR, seed, cell, HashRandom.FRUIT_COLOR);
+    }
+
     /**
      * Determines whether to create a leaf or a fruit at a given position based on randomness.
      * @param x The x-coordinate used to determine randomness.
      * @return A string indicating whether to create a "leaf", "fruit", or null if nothing should be created.
      */
     private String whatToCreate(int x) {
-        Random random = new Random(Objects.hash(x, seed));
-        int answer = random.nextInt(Constants.PORTABILITY_BOUND);
+        int answer = HashRandom.nextInt(seed, x, HashRandom.TREE_TOP, Constants.PORTABILITY_BOUND);
 //        System.out.println(randomFloat);
         if (answer < 8) {
             return LEAF;
@@ -143,7 +412,12 @@ public class Tree {
      * @return A new Leaf object.
      */
     private Leaf createLeaf(Vector2 position) {
-        return new Leaf(position, new RectangleRenderable(ColorSupplier.approximateColor(BASIC_LEAF_COLOR)));
+        Leaf leaf = pools.getLeafPool().obtain();
+        long cell = cellOf(position.x(), position.y());
+        Color color = ColorSupplier.approximateColor(BASIC_LEAF_COLOR, seed, cell, HashRandom.LEAF_COLOR);
+        leaf.reset(position, LEAF_RENDERABLES.get(color));
+        pools.getLeafSway().add(leaf, seed, cell);
+        return leaf;
     }
 
     /**
@@ -152,6 +426,47 @@ public class Tree {
      * @return A new Fruit object.
      */
     private Fruit createFruit(Vector2 position) {
-        return new Fruit(position, new OvalRenderable(ColorSupplier.approximateColor(FRUIT_COLOR)));
+        Fruit fruit = pools.getFruitPool().obtain();
+        long cell = cellOf(position.x(), position.y());
+        Color color = ColorSupplier.approximateColor(FRUIT_COLOR, seed, cell, HashRandom.FRUIT_COLOR);
+        fruit.reset(position, FRUIT_RENDERABLES.get(color));
+        return fruit;
+    }
+
+    /**
+     * Returns the memory of a HashSet holding the given number of elements, its table grown to the
+     * smallest power of two that keeps it under the default load factor.
+     * @param size The number of elements.
+     * @return The bytes of the set, its table and its entries.
+     */
+    private static long setBytes(int size) {
+        int tableLength = MIN_TABLE_LENGTH;
+        while (tableLength * 3 / 4 < size) {
+            tableLength *= 2;
+        }
+        return SET_BYTES + (long) tableLength * TABLE_SLOT_BYTES + (long) size * SET_ENTRY_BYTES;
+    }
+
+    /**
+     * Returns the fruit slot of a tree top cell, in the tree's chunk.
+     * @param i The horizontal offset of the cell from the top of the trunk.
+     * @param j The vertical offset of the cell from the top of the trunk.
+     * @return The slot of the cell.
+     */
+    private int slotOf(int i, int j) {
+        int treeTopHalfSize = Constants.TREE_TOP_SIZE / 2;
+        int cellsPerSide = Constants.TREE_TOP_SIZE / Constants.BLOCK_SIZE;
+        return slotBase + (i + treeTopHalfSize) / Constants.BLOCK_SIZE * cellsPerSide
+                + (j + treeTopHalfSize) / Constants.BLOCK_SIZE;
+    }
+
+    /**
+     * Returns the coordinate key of a cell of the tree top, for hashing its color.
+     * @param x The x-coordinate of the cell.
+     * @param y The y-coordinate of the cell.
+     * @return The key of the cell.
+     */
+    private static long cellOf(float x, float y) {
+        return HashRandom.cell((int) x, (int) y);
     }
 }
@@ -0,0 +1,107 @@
+package pepse.world.trees;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import pepse.util.ObjectPool;
+import pepse.util.TimingWheel;
+import pepse.world.Constants;
+
+/**
+ * Holds the object pools for the parts of trees, so trees streamed into the world reuse the trunks, leaves
+ * and fruits of trees that were just removed.
+ * @author: Batia
+ * @see pepse.util.ObjectPool
+ * @see pepse.world.trees.Tree
+ */
+public class TreePools {
+    private static final int MAX_POOLED_TRUNKS = 64;
+    private static final int MAX_POOLED_LEAVES = 2048;
+    private static final int MAX_POOLED_FRUITS = 256;
+    private static final int MAX_POOLED_CANOPIES = 64;
+    private final ObjectPool<TreeTrunk> trunkPool;
+    private final ObjectPool<Leaf> leafPool;
+    private final ObjectPool<Fruit> fruitPool;
+    private final ObjectPool<GameObject> canopyPool;
+    private final LeafSway leafSway;
+
+    /**
+     * Constructs empty pools for tree trunks, leaves, fruits and canopies, and the sway driver of the
+     * leaves.
+     * @param timers The world's timing wheel, for eaten fruits to come back on.
+     */
+    public TreePools(TimingWheel timers) {
+        this.trunkPool = new ObjectPool<>(
+                () -> new TreeTrunk(Vector2.ZERO, Constants.TREE_TRUNK_HEIGHT), MAX_POOLED_TRUNKS);
+        this.leafPool = new ObjectPool<>(() -> new Leaf(Vector2.ZERO, null), MAX_POOLED_LEAVES);
+        this.fruitPool = new ObjectPool<>(() -> new Fruit(Vector2.ZERO, null, timers), MAX_POOLED_FRUITS);
+        this.canopyPool = new ObjectPool<>(TreePools::createPooledCanopy, MAX_POOLED_CANOPIES);
+        this.leafSway = new LeafSway();
+    }
+
+    /**
+     * Returns the pool of canopies, the baked tree tops of distant trees.
+     * @return The canopy pool.
+     */
+    public ObjectPool<GameObject> getCanopyPool() {
+        return canopyPool;
+    }
+
+    /**
+     * Returns the driver that sways the leaves taken from the leaf pool.
+     * @return The leaf sway driver.
+     */
+    public LeafSway getLeafSway() {
+        return leafSway;
+    }
+
+    /**
+     * Returns the pool of tree trunks.
+     * @return The trunk pool.
+     */
+    public ObjectPool<TreeTrunk> getTrunkPool() {
+        return trunkPool;
+    }
+
+    /**
+     * Returns the pool of leaves.
+     * @return The leaf pool.
+     */
+    public ObjectPool<Leaf> getLeafPool() {
+        return leafPool;
+    }
+
+    /**
+     * Returns the pool of fruits.
+     * @return The fruit pool.
+     */
+    public ObjectPool<Fruit> getFruitPool() {
+        return fruitPool;
+    }
+
+    /**
+     * Gives a tree part that was removed from the game back to its pool. Leaves stop swaying.
+     * @param treePart A TreeTrunk, Leaf, Fruit or canopy, other objects are ignored.
+     */
+    public void recycle(GameObject treePart) {
+        if (treePart instanceof Leaf) {
+            leafSway.remove((Leaf) treePart);
+            leafPool.release((Leaf) treePart);
+        } else if (treePart instanceof Fruit) {
+            fruitPool.release((Fruit) treePart);
+        } else if (treePart instanceof TreeTrunk) {
+            trunkPool.release((TreeTrunk) treePart);
+        } else if (Constants.CANOPY_TAG.equals(treePart.getTag())) {
+            canopyPool.release(treePart);
+        }
+    }
+
+    /**
+     * Creates an empty canopy for the canopy pool. Canopies take no part in collisions.
+     * @return A new GameObject tagged as a canopy.
+     */
+    private static GameObject createPooledCanopy() {
+        GameObject canopy = new GameObject(Vector2.ZERO, Vector2.ONES.mult(Constants.TREE_TOP_SIZE), null);
+        canopy.setTag(Constants.CANOPY_TAG);
+        return canopy;
+    }
+}
@@ -5,6 +5,8 @@ import danogl.components.GameObjectPhysics;
 import danogl.gui.rendering.RectangleRenderable;
 import danogl.util.Vector2;
 import pepse.util.ColorSupplier;
+import pepse.util.HashRandom;
+import pepse.util.RenderablePalette;
 import pepse.world.Constants;
 import java.awt.*;
 
@@ -18,6 +20,8 @@ import java.awt.*;
  */
 public class TreeTrunk extends GameObject {
     private static final Color TRUNK_BASIC_COLOR = new Color(100, 50, 20);
+    private static final RenderablePalette TRUNK_RENDERABLES =
+            new RenderablePalette(TRUNK_BASIC_COLOR, RectangleRenderable::new);
 
 
     /**
@@ -33,4 +37,17 @@ public class TreeTrunk extends GameObject {
         physics().preventIntersectionsFromDirection(Vector2.ZERO);
         physics().setMass(GameObjectPhysics.IMMOVABLE_MASS);
     }
+
+    /**
+     * Resets a pooled trunk so it can be placed in a new tree, with a color approximated from the seed and
+     * the trunk's position.
+     * @param topLeftCorner The new position of the trunk in window coordinates (pixels).
+     * @param seed The world seed.
+     */
+    public void reset(Vector2 topLeftCorner, int seed) {
+        setTopLeftCorner(topLeftCorner);
+        Color color = ColorSupplier.approximateColor(TRUNK_BASIC_COLOR, seed, (long) topLeftCorner.x(),
+                HashRandom.TRUNK_COLOR);
+        renderer().setRenderable(TRUNK_RENDERABLES.get(color));
+    }
 }